@@ -0,0 +1,106 @@
+package com.spring.kotlin_ai_chatbot.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.openai.OpenAiEmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.spring.kotlin_ai_chatbot.service.CachingEmbeddingModel;
+import com.spring.kotlin_ai_chatbot.service.MappedEmbeddingCache;
+import com.spring.kotlin_ai_chatbot.service.OpenAiRateLimiter;
+import com.spring.kotlin_ai_chatbot.service.QueryCachingEmbeddingModel;
+import com.spring.kotlin_ai_chatbot.service.RateLimitedEmbeddingModel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class EmbeddingModelConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingModelConfig.class);
+
+    @Value("${spring.ai.openai.embedding.options.model}")
+    private String embeddingModelName;
+
+    @Value("${spring.ai.openai.embedding.options.dimensions}")
+    private int embeddingDimensions;
+
+    @Value("${app.embedding.cache.directory:${java.io.tmpdir}/kotlin-ai-chatbot/embedding-cache}")
+    private String cacheDirectory;
+
+    @Value("${app.embedding.cache.max-entries:200000}")
+    private int cacheMaxEntries;
+
+    @Value("${app.embedding.query-cache.enabled:true}")
+    private boolean queryCacheEnabled;
+
+    @Value("${app.embedding.query-cache.local-max-bytes:16777216}")
+    private long queryCacheLocalMaxBytes;
+
+    @Value("${app.embedding.query-cache.redis-enabled:true}")
+    private boolean queryCacheRedisEnabled;
+
+    @Value("${app.embedding.query-cache.redis-ttl:7d}")
+    private Duration queryCacheRedisTtl;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.embedding.cache.enabled", havingValue = "true")
+    public MappedEmbeddingCache mappedEmbeddingCache() {
+        try {
+            return new MappedEmbeddingCache(Path.of(cacheDirectory), embeddingModelName, 
+                                            embeddingDimensions, cacheMaxEntries);
+        } catch (IOException e) {
+            logger.error("Failed to open embedding cache at {}: {}", cacheDirectory, e.getMessage(), e);
+            throw new RuntimeException("Failed to open embedding cache: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The embedding model used by the vector store and every service. Decorators are
+     * layered over the OpenAI model here so callers never see the difference. The rate
+     * limiter sits below the caches, so cache hits never wait for or use up capacity.
+     * The query cache is outermost: a repeated question is answered from memory or Redis
+     * before anything else is consulted.
+     */
+    @Bean
+    @Primary
+    public EmbeddingModel embeddingModel(OpenAiEmbeddingModel openAiEmbeddingModel,
+                                         ObjectProvider<MappedEmbeddingCache> embeddingCache,
+                                         ObjectProvider<OpenAiRateLimiter> rateLimiter,
+                                         RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        EmbeddingModel model = openAiEmbeddingModel;
+
+        OpenAiRateLimiter limiter = rateLimiter.getIfAvailable();
+        if (limiter != null) {
+            model = new RateLimitedEmbeddingModel(model, limiter);
+        }
+
+        MappedEmbeddingCache cache = embeddingCache.getIfAvailable();
+        if (cache != null) {
+            logger.info("Persistent embedding cache enabled with {} entries", cache.size());
+            model = new CachingEmbeddingModel(model, cache);
+        }
+
+        if (queryCacheEnabled) {
+            logger.info("Query embedding cache enabled: {} KB in process, Redis tier {}", 
+                       queryCacheLocalMaxBytes / 1024, queryCacheRedisEnabled ? "on" : "off");
+            model = new QueryCachingEmbeddingModel(model, 
+                    queryCacheRedisEnabled ? binaryRedisTemplate : null,
+                    embeddingModelName, embeddingDimensions, queryCacheLocalMaxBytes, queryCacheRedisTtl,
+                    meterRegistry.getIfAvailable());
+        }
+
+        return model;
+    }
+}
@@ -0,0 +1,72 @@
+package com.spring.kotlin_ai_chatbot.config;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.spring.kotlin_ai_chatbot.service.LocalVectorStore;
+import com.spring.kotlin_ai_chatbot.service.MappedFlatVectorStore;
+
+/**
+ * The in-process vector store. app.vectorstore.local.mode selects how it is used: off,
+ * replica (a local HNSW copy of the Qdrant collection that serves reads or covers Qdrant
+ * outages), mapped (the same replica role, served by exact search over a memory-mapped
+ * snapshot) or standalone (the only vector store, for running without Qdrant).
+ */
+@Configuration
+public class LocalVectorStoreConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalVectorStoreConfig.class);
+
+    @Value("${spring.ai.openai.embedding.options.model}")
+    private String embeddingModelName;
+
+    @Value("${spring.ai.openai.embedding.options.dimensions}")
+    private int embeddingDimensions;
+
+    @Value("${app.vectorstore.local.file:${java.io.tmpdir}/kotlin-ai-chatbot/local-vector-store.bin}")
+    private String file;
+
+    @Value("${app.vectorstore.local.hnsw-m:16}")
+    private int hnswM;
+
+    @Value("${app.vectorstore.local.hnsw-ef-construct:100}")
+    private int hnswEfConstruct;
+
+    @Value("${app.vectorstore.local.hnsw-ef:64}")
+    private int hnswEf;
+
+    @Value("${app.vectorstore.mapped.file:${java.io.tmpdir}/kotlin-ai-chatbot/mapped-vector-store.bin}")
+    private String mappedFile;
+
+    @Value("${app.vectorstore.mapped.max-partitions:4}")
+    private int mappedMaxPartitions;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("'${app.vectorstore.local.mode:off}' == 'replica' or '${app.vectorstore.local.mode:off}' == 'standalone'")
+    public LocalVectorStore localVectorStore(EmbeddingModel embeddingModel,
+                                             @Value("${app.vectorstore.local.mode}") String mode) {
+        LocalVectorStore store = new LocalVectorStore(embeddingModel, Path.of(file), embeddingModelName,
+                embeddingDimensions, hnswM, hnswEfConstruct, hnswEf);
+        store.load();
+        logger.info("Local vector store enabled in {} mode with {} points", mode, store.size());
+        return store;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.vectorstore.local.mode", havingValue = "mapped")
+    public MappedFlatVectorStore mappedFlatVectorStore(EmbeddingModel embeddingModel) {
+        MappedFlatVectorStore store = new MappedFlatVectorStore(embeddingModel, Path.of(mappedFile),
+                embeddingModelName, embeddingDimensions, mappedMaxPartitions);
+        store.load();
+        logger.info("Mapped flat vector store enabled with {} points", store.size());
+        return store;
+    }
+}
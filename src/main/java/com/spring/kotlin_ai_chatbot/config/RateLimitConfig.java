@@ -0,0 +1,53 @@
+package com.spring.kotlin_ai_chatbot.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.spring.kotlin_ai_chatbot.service.OpenAiRateLimiter;
+import com.spring.kotlin_ai_chatbot.service.RateLimitedChatModel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class RateLimitConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    @Value("${app.openai.rate-limit.requests-per-minute:500}")
+    private int requestsPerMinute;
+
+    @Value("${app.openai.rate-limit.tokens-per-minute:200000}")
+    private int tokensPerMinute;
+
+    @Value("${spring.ai.openai.chat.options.max-tokens:1000}")
+    private int defaultMaxTokens;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.openai.rate-limit.enabled", havingValue = "true")
+    public OpenAiRateLimiter openAiRateLimiter(ObjectProvider<MeterRegistry> meterRegistry) {
+        logger.info("OpenAI rate limiting enabled: {} requests/min, {} tokens/min", 
+                   requestsPerMinute, tokensPerMinute);
+        return new OpenAiRateLimiter(requestsPerMinute, tokensPerMinute, meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * The chat model used by every service, sharing the embedding model's rate limit
+     */
+    @Bean
+    @Primary
+    public ChatModel chatModel(OpenAiChatModel openAiChatModel, ObjectProvider<OpenAiRateLimiter> rateLimiter) {
+        OpenAiRateLimiter limiter = rateLimiter.getIfAvailable();
+        if (limiter == null) {
+            return openAiChatModel;
+        }
+        return new RateLimitedChatModel(openAiChatModel, limiter, defaultMaxTokens);
+    }
+}
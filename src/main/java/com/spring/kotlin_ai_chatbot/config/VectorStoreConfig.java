@@ -1,14 +1,36 @@
 package com.spring.kotlin_ai_chatbot.config;
 
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.qdrant.QdrantVectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import io.qdrant.client.QdrantClient;
+import com.spring.kotlin_ai_chatbot.service.ChunkMetadata;
+import com.spring.kotlin_ai_chatbot.service.LocalVectorStore;
 import io.qdrant.client.QdrantGrpcClient;
+import io.qdrant.client.grpc.Collections.BinaryQuantization;
+import io.qdrant.client.grpc.Collections.CreateCollection;
+import io.qdrant.client.grpc.Collections.Disabled;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.HnswConfigDiff;
+import io.qdrant.client.grpc.Collections.OptimizersConfigDiff;
+import io.qdrant.client.grpc.Collections.PayloadSchemaType;
+import io.qdrant.client.grpc.Collections.QuantizationConfig;
+import io.qdrant.client.grpc.Collections.QuantizationConfigDiff;
+import io.qdrant.client.grpc.Collections.QuantizationType;
+import io.qdrant.client.grpc.Collections.ScalarQuantization;
+import io.qdrant.client.grpc.Collections.UpdateCollection;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.Collections.VectorParamsDiff;
+import io.qdrant.client.grpc.Collections.VectorsConfig;
+import io.qdrant.client.grpc.Collections.VectorsConfigDiff;
+import com.knuddels.jtokkit.api.EncodingType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +58,42 @@ public class VectorStoreConfig {
     @Value("${spring.ai.vectorstore.qdrant.use-tls}")
     private boolean useTls;
 
+    @Value("${app.embedding.max-request-tokens:8191}")
+    private int maxRequestTokens;
+
+    @Value("${spring.ai.openai.embedding.options.dimensions}")
+    private int embeddingDimensions;
+
+    /**
+     * none, scalar (int8) or binary
+     */
+    @Value("${app.qdrant.collection.quantization:scalar}")
+    private String quantization;
+
+    @Value("${app.qdrant.collection.quantization-always-ram:true}")
+    private boolean quantizationAlwaysRam;
+
+    @Value("${app.qdrant.collection.on-disk-vectors:true}")
+    private boolean onDiskVectors;
+
+    @Value("${app.qdrant.collection.hnsw-m:16}")
+    private int hnswM;
+
+    @Value("${app.qdrant.collection.hnsw-ef-construct:100}")
+    private int hnswEfConstruct;
+
+    /**
+     * 0 leaves the segment count to Qdrant, which uses one per CPU
+     */
+    @Value("${app.qdrant.collection.segments:0}")
+    private int segments;
+
+    @Value("${app.qdrant.collection.apply-to-existing:false}")
+    private boolean applyToExisting;
+
+    @Value("${app.vectorstore.local.mode:off}")
+    private String localMode;
+
     @Bean
     @Primary
     public QdrantClient qdrantClient() {
@@ -49,6 +107,9 @@ public class VectorStoreConfig {
             QdrantGrpcClient grpcClient = clientBuilder.build();
             
             QdrantClient client = new QdrantClient(grpcClient);
+            if (isStandalone()) {
+                return client;
+            }
 
             logger.info("Testing Qdrant connection...");
             try {
@@ -68,13 +129,23 @@ public class VectorStoreConfig {
 
     @Bean
     @Primary
-    public VectorStore vectorStore(QdrantClient qdrantClient, EmbeddingModel embeddingModel) {
+    public VectorStore vectorStore(QdrantClient qdrantClient, EmbeddingModel embeddingModel,
+                                   ObjectProvider<LocalVectorStore> localVectorStore) {
+        if (isStandalone()) {
+            logger.info("Running without Qdrant, using the local vector store");
+            LocalVectorStore store = localVectorStore.getObject();
+            store.markReady();
+            return store;
+        }
         logger.info("Initializing Qdrant vector store with collection: {}", collectionName);
         
         try {
+            ensureCollection(qdrantClient);
+
             QdrantVectorStore vectorStore = QdrantVectorStore.builder(qdrantClient, embeddingModel)
                     .collectionName(collectionName)
                     .initializeSchema(true)
+                    .batchingStrategy(new TokenCountBatchingStrategy(EncodingType.CL100K_BASE, maxRequestTokens, 0.1))
                     .build();
                     
             logger.info("Successfully initialized Qdrant vector store");
@@ -85,4 +156,111 @@ public class VectorStoreConfig {
             throw new RuntimeException("Failed to initialize vector store: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates keyword payload indexes once the collection exists, so filtered searches use
+     * Qdrant's filterable HNSW instead of scanning payloads. Creating an index that already
+     * exists is a no-op in Qdrant, so this runs on every startup.
+     */
+    @Bean
+    public SmartInitializingSingleton qdrantPayloadIndexes(QdrantClient qdrantClient, VectorStore vectorStore) {
+        return () -> {
+            if (isStandalone()) {
+                return;
+            }
+            for (String field : ChunkMetadata.KEYWORD_INDEXED) {
+                try {
+                    qdrantClient.createPayloadIndexAsync(collectionName, field, PayloadSchemaType.Keyword,
+                            null, null, null, null).get(30, TimeUnit.SECONDS);
+                    logger.info("Payload index on '{}' ready in collection {}", field, collectionName);
+                } catch (Exception e) {
+                    logger.warn("Could not create payload index on '{}': {}", field, e.getMessage());
+                }
+            }
+        };
+    }
+
+    private boolean isStandalone() {
+        return "standalone".equalsIgnoreCase(localMode);
+    }
+
+    /**
+     * Creates the collection with our storage settings before QdrantVectorStore would
+     * create it with defaults. Existing collections keep their settings unless
+     * apply-to-existing is set, since changing them makes Qdrant rebuild indexes.
+     */
+    private void ensureCollection(QdrantClient qdrantClient) throws Exception {
+        boolean exists = qdrantClient.collectionExistsAsync(collectionName).get(30, TimeUnit.SECONDS);
+
+        if (!exists) {
+            CreateCollection.Builder create = CreateCollection.newBuilder()
+                    .setCollectionName(collectionName)
+                    .setVectorsConfig(VectorsConfig.newBuilder()
+                            .setParams(VectorParams.newBuilder()
+                                    .setSize(embeddingDimensions)
+                                    .setDistance(Distance.Cosine)
+                                    .setOnDisk(onDiskVectors)))
+                    .setHnswConfig(hnswConfig());
+            if (segments > 0) {
+                create.setOptimizersConfig(OptimizersConfigDiff.newBuilder().setDefaultSegmentNumber(segments));
+            }
+            QuantizationConfig quantizationConfig = quantizationConfig();
+            if (quantizationConfig != null) {
+                create.setQuantizationConfig(quantizationConfig);
+            }
+            qdrantClient.createCollectionAsync(create.build()).get(30, TimeUnit.SECONDS);
+            logger.info("Created collection {} (quantization: {}, on-disk vectors: {}, m: {}, ef_construct: {}, segments: {})",
+                       collectionName, quantization, onDiskVectors, hnswM, hnswEfConstruct, 
+                       segments > 0 ? segments : "auto");
+            return;
+        }
+
+        if (!applyToExisting) {
+            logger.info("Collection {} exists, keeping its storage settings", collectionName);
+            return;
+        }
+
+        UpdateCollection.Builder update = UpdateCollection.newBuilder()
+                .setCollectionName(collectionName)
+                .setVectorsConfig(VectorsConfigDiff.newBuilder()
+                        .setParams(VectorParamsDiff.newBuilder().setOnDisk(onDiskVectors)))
+                .setHnswConfig(hnswConfig());
+        if (segments > 0) {
+            update.setOptimizersConfig(OptimizersConfigDiff.newBuilder().setDefaultSegmentNumber(segments));
+        }
+        QuantizationConfig quantizationConfig = quantizationConfig();
+        update.setQuantizationConfig(quantizationConfig == null
+                ? QuantizationConfigDiff.newBuilder().setDisabled(Disabled.getDefaultInstance()).build()
+                : quantizationConfig.hasBinary()
+                        ? QuantizationConfigDiff.newBuilder().setBinary(quantizationConfig.getBinary()).build()
+                        : QuantizationConfigDiff.newBuilder().setScalar(quantizationConfig.getScalar()).build());
+        qdrantClient.updateCollectionAsync(update.build()).get(30, TimeUnit.SECONDS);
+        logger.info("Applied storage settings to existing collection {} (quantization: {}, on-disk vectors: {}); " +
+                   "Qdrant rebuilds affected segments in the background", collectionName, quantization, onDiskVectors);
+    }
+
+    private HnswConfigDiff hnswConfig() {
+        return HnswConfigDiff.newBuilder().setM(hnswM).setEfConstruct(hnswEfConstruct).build();
+    }
+
+    /**
+     * Quantized vectors stay in RAM for the HNSW traversal while the originals can live on
+     * disk; searches rescore the candidates against the originals
+     */
+    private QuantizationConfig quantizationConfig() {
+        return switch (quantization.toLowerCase()) {
+            case "none" -> null;
+            case "scalar" -> QuantizationConfig.newBuilder()
+                    .setScalar(ScalarQuantization.newBuilder()
+                            .setType(QuantizationType.Int8)
+                            .setQuantile(0.99f)
+                            .setAlwaysRam(quantizationAlwaysRam))
+                    .build();
+            case "binary" -> QuantizationConfig.newBuilder()
+                    .setBinary(BinaryQuantization.newBuilder().setAlwaysRam(quantizationAlwaysRam))
+                    .build();
+            default -> throw new IllegalArgumentException(
+                    "Unknown app.qdrant.collection.quantization '" + quantization + "', expected none, scalar or binary");
+        };
+    }
+}
@@ -4,7 +4,9 @@ import com.spring.kotlin_ai_chatbot.dto.*;
 import com.spring.kotlin_ai_chatbot.service.ProgrammingChatbotService;
 import com.spring.kotlin_ai_chatbot.service.RandomFactsService;
 import com.spring.kotlin_ai_chatbot.service.InitializationService;
-import com.spring.kotlin_ai_chatbot.service.PdfProcessingService;
+import com.spring.kotlin_ai_chatbot.service.IngestionJob;
+import com.spring.kotlin_ai_chatbot.service.IngestionJobService;
+import com.spring.kotlin_ai_chatbot.service.RetrievalBenchmarkService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/chatbot")
@@ -24,14 +27,19 @@ public class ChatbotController {
     private final ProgrammingChatbotService chatbotService;
     private final RandomFactsService randomFactsService;
     private final InitializationService initializationService;
+    private final IngestionJobService ingestionJobService;
+    private final RetrievalBenchmarkService retrievalBenchmarkService;
 
     public ChatbotController(ProgrammingChatbotService chatbotService,
                            RandomFactsService randomFactsService,
                            InitializationService initializationService,
-                           PdfProcessingService pdfProcessingService) {
+                           IngestionJobService ingestionJobService,
+                           RetrievalBenchmarkService retrievalBenchmarkService) {
         this.chatbotService = chatbotService;
         this.randomFactsService = randomFactsService;
         this.initializationService = initializationService;
+        this.ingestionJobService = ingestionJobService;
+        this.retrievalBenchmarkService = retrievalBenchmarkService;
     }
 
     @PostMapping("/ask")
@@ -39,14 +47,17 @@ public class ChatbotController {
         logger.info("Received programming question: {}", request.getQuestion());
 
         try {
-            ProgrammingChatbotService.ChatbotResponse response = chatbotService.askQuestion(request.getQuestion());
+            ProgrammingChatbotService.ChatbotResponse response = chatbotService.askQuestion(
+                    request.getQuestion(), request.isBypassCache());
 
             if (response.isSuccessful()) {
                 ChatResponse chatResponse = ChatResponse.success(
                         response.getAnswer(),
                         response.getConfidence(),
                         response.getContextDocumentsCount(),
+                        response.getRetrievalTiers(),
                         response.getResponseTimeMs());
+                chatResponse.setCached(response.isCached());
                 return ResponseEntity.ok(chatResponse);
             } else {
                 ChatResponse errorResponse = ChatResponse.error(response.getErrorMessage());
@@ -61,7 +72,8 @@ public class ChatbotController {
     }
 
     @GetMapping("/ask")
-    public ResponseEntity<ChatResponse> askQuestionGet(@RequestParam String question) {
+    public ResponseEntity<ChatResponse> askQuestionGet(@RequestParam String question,
+            @RequestParam(defaultValue = "false") boolean bypassCache) {
         logger.info("Received GET programming question: {}", question);
 
         if (question == null || question.trim().isEmpty()) {
@@ -74,7 +86,7 @@ public class ChatbotController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        ChatRequest request = new ChatRequest(question.trim());
+        ChatRequest request = new ChatRequest(question.trim(), bypassCache);
         return askQuestion(request);
     }
 
@@ -115,38 +127,54 @@ public class ChatbotController {
         }
     }
 
+    /**
+     * Old name of POST /admin/reload-jobs, kept for existing callers. It used to block until
+     * the reload finished; it now answers 202 with the job to poll, like the new route.
+     */
+    @Deprecated
     @PostMapping("/admin/reload-documents")
-    public ResponseEntity<DocumentReloadResponse> reloadDocuments() {
-        logger.info("Admin request to reload all documents");
+    public ResponseEntity<ReloadJobResponse> reloadDocuments() {
+        logger.info("Admin request to reload all documents (deprecated route)");
+        return submitReloadJob();
+    }
+
+    @PostMapping("/admin/reload-jobs")
+    public ResponseEntity<ReloadJobResponse> submitReloadJob() {
+        logger.info("Admin request to start a reload job");
 
         try {
-            PdfProcessingService.BulkProcessingResult result = initializationService.reloadAllDocuments();
-            
-            DocumentReloadResponse response = new DocumentReloadResponse(
-                result.isCompletelySuccessful(),
-                result.getSuccessfulCount(),
-                result.getFailedCount(),
-                result.getTotalChunks(),
-                result.getTotalProcessingTimeMs(),
-                result.getSuccessfulDocuments().keySet().toArray(new String[0]),
-                result.getFailedDocuments()
-            );
-            
-            return ResponseEntity.ok(response);
-            
+            IngestionJob job = ingestionJobService.submitReload();
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/chatbot/admin/reload-jobs/{jobId}")
+                            .buildAndExpand(job.getId())
+                            .toUri())
+                    .body(new ReloadJobResponse(true, null, job.snapshot()));
+        } catch (IngestionJobService.JobAlreadyRunningException e) {
+            logger.warn("Rejected reload job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ReloadJobResponse(false, e.getMessage(), e.getActiveJob().snapshot()));
         } catch (IllegalStateException e) {
-            logger.warn("Cannot reload documents: {}", e.getMessage());
-            DocumentReloadResponse errorResponse = new DocumentReloadResponse(
-                false, 0, 0, 0, 0, new String[0], 
-                java.util.Map.of("error", e.getMessage())
-            );
-            return ResponseEntity.badRequest().body(errorResponse);
-        } catch (Exception e) {
-            logger.error("Error reloading documents", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            logger.warn("Cannot start reload job: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ReloadJobResponse(false, e.getMessage(), null));
         }
     }
 
+    @GetMapping("/admin/reload-jobs/{jobId}")
+    public ResponseEntity<IngestionJob.JobStatus> getReloadJob(@PathVariable String jobId) {
+        return ingestionJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/admin/reload-jobs/{jobId}")
+    public ResponseEntity<IngestionJob.JobStatus> cancelReloadJob(@PathVariable String jobId) {
+        logger.info("Admin request to cancel reload job {}", jobId);
+        return ingestionJobService.cancel(jobId)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/admin/initialization-status")
     public ResponseEntity<InitializationService.InitializationStatus> getInitializationStatus() {
         return ResponseEntity.ok(initializationService.getStatus());
@@ -163,6 +191,23 @@ public class ChatbotController {
         }
     }
 
+    /**
+     * Runs the given queries, or a built-in set, against the live collection
+     */
+    @PostMapping("/admin/retrieval-benchmark")
+    public ResponseEntity<RetrievalBenchmarkService.BenchmarkResult> runRetrievalBenchmark(
+            @RequestBody(required = false) java.util.List<String> queries,
+            @RequestParam(defaultValue = "5") int topK) {
+        logger.info("Admin request to benchmark retrieval settings");
+
+        try {
+            return ResponseEntity.ok(retrievalBenchmarkService.run(queries, topK));
+        } catch (Exception e) {
+            logger.error("Error running retrieval benchmark", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/info")
     public ResponseEntity<AssistantInfo> getAssistantInfo() {
         AssistantInfo info = new AssistantInfo(
@@ -197,14 +242,10 @@ public class ChatbotController {
 
     @Data
     @AllArgsConstructor
-    public static class DocumentReloadResponse {
-        private final boolean successful;
-        private final int successfulDocuments;
-        private final int failedDocuments;
-        private final int totalChunks;
-        private final long processingTimeMs;
-        private final String[] processedFiles;
-        private final java.util.Map<String, String> errors;
+    public static class ReloadJobResponse {
+        private final boolean accepted;
+        private final String errorMessage;
+        private final IngestionJob.JobStatus job;
     }
 
     @Data
@@ -0,0 +1,33 @@
+package com.spring.kotlin_ai_chatbot.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of an ingestion that has not finished yet: every batch up to and including
+ * lastCommittedBatch is stored in the vector store, except the chunks listed in
+ * droppedChunkIds, which were dropped as near-duplicates. Only valid for the exact file
+ * and pipeline settings it was recorded with, since those determine the batch sequence.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionCheckpoint {
+
+    private String source;
+    private String fileHash;
+    private String pipelineFingerprint;
+    private int lastCommittedBatch = -1;
+    private LocalDateTime updatedAt;
+    private List<String> droppedChunkIds = new ArrayList<>();
+
+    public boolean matches(String fileHash, String pipelineFingerprint) {
+        return this.fileHash != null && this.fileHash.equals(fileHash)
+                && this.pipelineFingerprint != null && this.pipelineFingerprint.equals(pipelineFingerprint);
+    }
+}
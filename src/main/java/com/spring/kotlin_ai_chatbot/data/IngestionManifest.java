@@ -0,0 +1,39 @@
+package com.spring.kotlin_ai_chatbot.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What was last ingested for a source file: the hash of the file itself, the pipeline
+ * settings that produced its chunks, the hash of every chunk stored for it, the
+ * near-duplicate fingerprints of those chunks, and the other sources holding chunks this
+ * one dropped as near-duplicates. When one of those sources loses chunks, this one has to
+ * be ingested again so the dropped content is not lost with them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionManifest {
+
+    private String source;
+    private String fileHash;
+    private String pipelineFingerprint;
+    private List<String> chunkHashes = new ArrayList<>();
+    private LocalDateTime ingestedAt;
+    private List<Long> chunkFingerprints = new ArrayList<>();
+    private List<String> duplicateSources = new ArrayList<>();
+
+    /**
+     * True when the file and the settings used to chunk it are both unchanged. A manifest
+     * whose file hash was cleared never matches, which forces the next ingestion.
+     */
+    public boolean matches(String fileHash, String pipelineFingerprint) {
+        return this.fileHash != null && this.fileHash.equals(fileHash)
+                && this.pipelineFingerprint != null && this.pipelineFingerprint.equals(pipelineFingerprint);
+    }
+}
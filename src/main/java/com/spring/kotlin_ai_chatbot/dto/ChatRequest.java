@@ -15,4 +15,6 @@ public class ChatRequest {
     @Size(max = 1000, message = "Question must be less than 1000 characters")
     private String question;
 
+    private boolean bypassCache;
+
 }
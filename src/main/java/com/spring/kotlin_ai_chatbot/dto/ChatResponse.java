@@ -1,6 +1,7 @@
 package com.spring.kotlin_ai_chatbot.dto;
 
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,12 +17,15 @@ public class ChatResponse {
     private List<CodeExample> codeExamples;
     private String confidence;
     private int contextDocumentCount;
+    private Map<String, Integer> retrievalTiers;
     private long responseTimeMs;
+    private boolean cached;
     private boolean successful;
     private String errorMessage;
 
     public static ChatResponse success(String rawAnswer, String confidence, 
-                                     int contextDocumentsCount, long responseTimeMs) {
+                                     int contextDocumentsCount, Map<String, Integer> retrievalTiers,
+                                     long responseTimeMs) {
         ChatResponse response = new ChatResponse();
         
         ParsedContent parsed = parseAnswer(rawAnswer);
@@ -32,6 +36,7 @@ public class ChatResponse {
         response.codeExamples = parsed.codeExamples;
         response.confidence = confidence;
         response.contextDocumentCount = contextDocumentsCount;
+        response.retrievalTiers = retrievalTiers;
         response.responseTimeMs = responseTimeMs;
         response.successful = true;
         return response;
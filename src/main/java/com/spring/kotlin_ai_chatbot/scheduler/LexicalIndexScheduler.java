@@ -0,0 +1,30 @@
+package com.spring.kotlin_ai_chatbot.scheduler;
+
+import com.spring.kotlin_ai_chatbot.service.LexicalSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Component
+public class LexicalIndexScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LexicalIndexScheduler.class);
+
+    private final LexicalSearchService lexicalSearch;
+
+    public LexicalIndexScheduler(LexicalSearchService lexicalSearch) {
+        this.lexicalSearch = lexicalSearch;
+    }
+
+    @Scheduled(fixedDelayString = "${app.lexical.refresh-interval-ms:600000}",
+               initialDelayString = "${app.lexical.refresh-interval-ms:600000}")
+    public void refresh() {
+        try {
+            lexicalSearch.refreshIfStale();
+        } catch (Exception e) {
+            logger.error("Error refreshing lexical index: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.spring.kotlin_ai_chatbot.scheduler;
+
+import com.spring.kotlin_ai_chatbot.service.LocalReplicaSyncService;
+import com.spring.kotlin_ai_chatbot.service.ReplicaVectorStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+@Component
+@ConditionalOnExpression("'${app.vectorstore.local.mode:off}' != 'off'")
+public class LocalVectorStoreScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalVectorStoreScheduler.class);
+
+    private final ReplicaVectorStore localVectorStore;
+    private final ObjectProvider<LocalReplicaSyncService> replicaSyncService;
+
+    public LocalVectorStoreScheduler(ReplicaVectorStore localVectorStore,
+                                     ObjectProvider<LocalReplicaSyncService> replicaSyncService) {
+        this.localVectorStore = localVectorStore;
+        this.replicaSyncService = replicaSyncService;
+    }
+
+
+    @Scheduled(fixedDelayString = "${app.vectorstore.local.sync-interval-ms:600000}",
+               initialDelayString = "${app.vectorstore.local.sync-interval-ms:600000}")
+    public void syncReplica() {
+        replicaSyncService.ifAvailable(LocalReplicaSyncService::sync);
+    }
+
+    @Scheduled(fixedDelayString = "${app.vectorstore.local.flush-interval-ms:60000}")
+    public void flush() {
+        try {
+            localVectorStore.save();
+        } catch (Exception e) {
+            logger.error("Error saving local vector store: {}", e.getMessage(), e);
+        }
+    }
+}
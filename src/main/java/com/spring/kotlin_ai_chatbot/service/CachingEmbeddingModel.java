@@ -0,0 +1,74 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Serves embeddings from a {@link MappedEmbeddingCache} and only sends texts that have
+ * never been embedded to the wrapped model. Batch requests are split into hits and misses,
+ * so a re-ingestion with mostly unchanged chunk texts costs only the changed ones.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingEmbeddingModel.class);
+
+    private final EmbeddingModel delegate;
+    private final MappedEmbeddingCache cache;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, MappedEmbeddingCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> texts = request.getInstructions();
+        float[][] vectors = new float[texts.size()][];
+        List<String> missingTexts = new ArrayList<>();
+        List<Integer> missingPositions = new ArrayList<>();
+
+        for (int i = 0; i < texts.size(); i++) {
+            vectors[i] = cache.get(texts.get(i));
+            if (vectors[i] == null) {
+                missingTexts.add(texts.get(i));
+                missingPositions.add(i);
+            }
+        }
+
+        if (!missingTexts.isEmpty()) {
+            EmbeddingResponse response = delegate.call(new EmbeddingRequest(missingTexts, request.getOptions()));
+            List<Embedding> results = response.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                float[] vector = results.get(i).getOutput();
+                vectors[missingPositions.get(i)] = vector;
+                cache.put(missingTexts.get(i), vector);
+            }
+        }
+
+        logger.debug("Embedding cache served {} of {} texts", texts.size() - missingTexts.size(), texts.size());
+
+        List<Embedding> embeddings = new ArrayList<>(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            embeddings.add(new Embedding(vectors[i], i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+}
@@ -0,0 +1,48 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.List;
+
+/**
+ * Payload keys of the points stored in Qdrant. Every key is repeated in every point, so
+ * they are kept short; only fields that searches filter on or callers read are stored.
+ * Changing this schema requires bumping the metadata schema version in
+ * PdfProcessingService so existing documents are re-ingested.
+ */
+public final class ChunkMetadata {
+
+    /**
+     * Payload field QdrantVectorStore keeps the chunk text in
+     */
+    public static final String CONTENT = "doc_content";
+
+    public static final String SOURCE = "src";
+    public static final String LANGUAGE = "lang";
+    public static final String CATEGORY = "cat";
+    public static final String CHUNK_INDEX = "idx";
+    public static final String PAGE = "pg";
+    public static final String END_PAGE = "pg_end";
+    public static final String HAS_CODE = "code";
+
+    /**
+     * Share of code-like lines in the chunk, rounded to three decimals, kept for ranking
+     */
+    public static final String CODE_DENSITY = "cd";
+
+    /**
+     * Language classified from the chunk text, stored only when it differs from LANGUAGE
+     */
+    public static final String DETECTED_LANGUAGE = "dlang";
+
+    /**
+     * Source key used by points written before the compact schema
+     */
+    public static final String LEGACY_SOURCE = "source";
+
+    /**
+     * Fields searches filter or delete by, which get keyword payload indexes
+     */
+    public static final List<String> KEYWORD_INDEXED = List.of(LANGUAGE, CATEGORY, SOURCE);
+
+    private ChunkMetadata() {
+    }
+}
@@ -0,0 +1,137 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+/**
+ * Detects code in a chunk with one left-to-right pass over its characters. It collects
+ * fenced blocks, indented lines, matched brace pairs and code keywords, and classifies
+ * each line as code-like or prose. Work is linear in the chunk length regardless of how
+ * many braces it contains, unlike the backtracking regexes it replaces.
+ */
+public final class CodeSignalScanner {
+
+    private static final String[] KEYWORDS = {
+        "public static void main", "function ", "def ", "fun ", "fn ", "func "
+    };
+
+    private static final String[] LINE_STARTS = {
+        "def ", "fun ", "fn ", "func ", "function ", "class ", "import ", "#include", "return ",
+        "public ", "private ", "protected ", "let ", "const ", "var ", "val ", "struct ", "impl ",
+        "package ", "using ", "//", "@"
+    };
+
+    private static final double CODE_DENSITY_THRESHOLD = 0.15;
+
+    private CodeSignalScanner() {
+    }
+
+    public static CodeSignals scan(String content) {
+        if (content == null || content.isEmpty()) {
+            return new CodeSignals(0, 0, 0, 0, 0, 0);
+        }
+
+        int length = content.length();
+        int fences = 0;
+        int indentedLines = 0;
+        int bracePairs = 0;
+        int openBraces = 0;
+        int keywordHits = 0;
+        int codeLines = 0;
+        int nonBlankLines = 0;
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+
+            int indent = 0;
+            int firstChar = lineStart;
+            while (firstChar < lineEnd && (content.charAt(firstChar) == ' ' || content.charAt(firstChar) == '\t')) {
+                indent += content.charAt(firstChar) == '\t' ? 4 : 1;
+                firstChar++;
+            }
+
+            int lastChar = lineEnd - 1;
+            while (lastChar >= firstChar && Character.isWhitespace(content.charAt(lastChar))) {
+                lastChar--;
+            }
+
+            if (lastChar >= firstChar) {
+                nonBlankLines++;
+                boolean codeLike = false;
+
+                if (content.startsWith("```", firstChar)) {
+                    fences++;
+                    codeLike = true;
+                }
+                if (indent >= 4) {
+                    indentedLines++;
+                    codeLike = true;
+                }
+
+                char last = content.charAt(lastChar);
+                if (last == '{' || last == '}' || last == ';' || last == ')') {
+                    codeLike = true;
+                }
+                if (!codeLike && startsWithAny(content, firstChar, LINE_STARTS)) {
+                    codeLike = true;
+                }
+
+                boolean wordStart = true;
+                for (int i = firstChar; i <= lastChar; i++) {
+                    char c = content.charAt(i);
+                    if (c == '{') {
+                        openBraces++;
+                    } else if (c == '}' && openBraces > 0) {
+                        openBraces--;
+                        bracePairs++;
+                    }
+                    if (wordStart && startsWithAny(content, i, KEYWORDS)) {
+                        keywordHits++;
+                    }
+                    wordStart = !Character.isLetterOrDigit(c) && c != '_';
+                }
+
+                if (codeLike) {
+                    codeLines++;
+                }
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        return new CodeSignals(fences / 2 + fences % 2, indentedLines, bracePairs, keywordHits, codeLines, nonBlankLines);
+    }
+
+    private static boolean startsWithAny(String content, int offset, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (content.startsWith(prefix, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record CodeSignals(
+        int fencedBlocks,
+        int indentedLines,
+        int bracePairs,
+        int keywordHits,
+        int codeLines,
+        int nonBlankLines
+    ) {
+        /**
+         * Share of non-blank lines that look like code, between 0 and 1
+         */
+        public double density() {
+            return nonBlankLines == 0 ? 0.0 : (double) codeLines / nonBlankLines;
+        }
+
+        public boolean hasCode() {
+            return fencedBlocks > 0
+                    || keywordHits > 0
+                    || density() >= CODE_DENSITY_THRESHOLD
+                    || (bracePairs > 0 && codeLines > 1);
+        }
+    }
+}
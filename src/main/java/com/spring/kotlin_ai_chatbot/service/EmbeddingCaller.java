@@ -0,0 +1,41 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+/**
+ * Names the feature an embedding call is made for, so the query embedding cache can
+ * report hit rates per caller. The name is bound to the current thread for the duration
+ * of a try-with-resources block; embeddings requested outside any block count as "other".
+ */
+public final class EmbeddingCaller {
+
+    public static final String OTHER = "other";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private EmbeddingCaller() {
+    }
+
+    public static Scope open(String caller) {
+        String previous = CURRENT.get();
+        CURRENT.set(caller);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static String current() {
+        String caller = CURRENT.get();
+        return caller != null ? caller : OTHER;
+    }
+
+    /**
+     * Restores the previous caller on close
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,338 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Answers repeated questions from Redis by an exact match on their normalized text:
+ * case-folded, with punctuation stripped and whitespace collapsed. It is checked before
+ * the semantic answer cache and needs no embedding.
+ *
+ * Concurrent misses for one question are collapsed: threads on this node wait for the
+ * one already answering it, and nodes take a short Redis lock so only one of them calls
+ * the chat model while the others wait for its entry. Entries are refreshed early with
+ * a probability that rises as they near expiry, weighted by how long the answer took,
+ * so a hot entry is recomputed by one request before it lapses rather than by all of
+ * them after. Values are stored as gzipped JSON.
+ */
+@Service
+public class ExactAnswerCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExactAnswerCache.class);
+
+    private static final String KEY_PREFIX = "answer:exact:";
+    private static final String LOCK_PREFIX = "answer:exact:lock:";
+    private static final String GENERATION_KEY = "answer:exact:generation";
+    private static final long LOCK_POLL_MILLIS = 100;
+
+    private static final Pattern APOSTROPHES = Pattern.compile("['’]");
+    private static final Pattern PUNCTUATION = Pattern.compile("[^\\p{L}\\p{N}+#\\s]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentHashMap<String, CompletableFuture<ProgrammingChatbotService.ChatbotResponse>> inFlight =
+            new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration ttl;
+    private final double earlyRefreshBeta;
+    private final Duration lockTimeout;
+
+    public ExactAnswerCache(RedisTemplate<String, byte[]> binaryRedisTemplate,
+                            @Value("${app.chatbot.exact-cache.enabled:true}") boolean enabled,
+                            @Value("${app.chatbot.exact-cache.ttl:6h}") Duration ttl,
+                            @Value("${app.chatbot.exact-cache.early-refresh-beta:1.0}") double earlyRefreshBeta,
+                            @Value("${app.chatbot.exact-cache.lock-timeout:60s}") Duration lockTimeout) {
+        this.redisTemplate = binaryRedisTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.lockTimeout = lockTimeout;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached answer to this question, or the loader's answer, which is cached
+     * if successful. A stale-but-present entry is still served to everyone except the one
+     * request that refreshes it.
+     */
+    public ProgrammingChatbotService.ChatbotResponse get(String question,
+                                                         Supplier<ProgrammingChatbotService.ChatbotResponse> loader) {
+        long startTime = System.currentTimeMillis();
+        String key = key(question);
+        Entry entry = read(key);
+        if (entry != null && !shouldRefreshEarly(entry)) {
+            return hit(entry, startTime);
+        }
+
+        CompletableFuture<ProgrammingChatbotService.ChatbotResponse> own = new CompletableFuture<>();
+        CompletableFuture<ProgrammingChatbotService.ChatbotResponse> leader = inFlight.putIfAbsent(key, own);
+        if (leader != null) {
+            return entry != null ? hit(entry, startTime) : follow(leader, startTime);
+        }
+        try {
+            ProgrammingChatbotService.ChatbotResponse response = load(key, entry, loader, startTime);
+            own.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Stores a successful response under this question, replacing any earlier answer
+     */
+    public void put(String question, ProgrammingChatbotService.ChatbotResponse response) {
+        write(key(question), response);
+    }
+
+    /**
+     * Moves every node to a fresh key space; the previous entries expire on their own.
+     * The semantic answer cache checks the same generation, so it moves even when this
+     * cache is disabled.
+     */
+    @EventListener
+    public void onKnowledgeBaseUpdated(KnowledgeBaseUpdatedEvent event) {
+        try {
+            Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            logger.info("Exact answer cache moved to generation {} after {} was ingested", generation, event.source());
+        } catch (Exception e) {
+            logger.warn("Could not invalidate the exact answer cache: {}", e.getMessage());
+        }
+    }
+
+    static String normalize(String question) {
+        String text = Normalizer.normalize(question, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        text = APOSTROPHES.matcher(text).replaceAll("");
+        text = PUNCTUATION.matcher(text).replaceAll(" ");
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    private ProgrammingChatbotService.ChatbotResponse load(String key, Entry stale,
+                                                          Supplier<ProgrammingChatbotService.ChatbotResponse> loader,
+                                                          long startTime) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        boolean locked = tryLock(lockKey, token);
+        if (!locked) {
+            if (stale != null) {
+                return hit(stale, startTime);
+            }
+            Entry awaited = awaitEntry(key, lockKey);
+            if (awaited != null) {
+                return hit(awaited, startTime);
+            }
+            logger.warn("Another node did not leave an answer, answering here");
+        }
+        try {
+            ProgrammingChatbotService.ChatbotResponse response = loader.get();
+            if (!response.isCached()) {
+                write(key, response);
+            }
+            return response;
+        } finally {
+            if (locked) {
+                releaseLock(lockKey, token);
+            }
+        }
+    }
+
+    private ProgrammingChatbotService.ChatbotResponse follow(
+            CompletableFuture<ProgrammingChatbotService.ChatbotResponse> leader, long startTime) {
+        try {
+            ProgrammingChatbotService.ChatbotResponse response = leader.get();
+            if (!response.isSuccessful()) {
+                return response;
+            }
+            return ProgrammingChatbotService.ChatbotResponse.cached(response.getAnswer(), response.getConfidence(),
+                    response.getContextDocumentsCount(), response.getRetrievalTiers(),
+                    System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an answer", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Early expiry as in probabilistic early recomputation: refresh once
+     * now - delta * beta * ln(random) passes the expiry, delta being the time the answer
+     * took to compute
+     */
+    private boolean shouldRefreshEarly(Entry entry) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = -entry.computeMillis() * earlyRefreshBeta * Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.expiresAt();
+    }
+
+    private ProgrammingChatbotService.ChatbotResponse hit(Entry entry, long startTime) {
+        return ProgrammingChatbotService.ChatbotResponse.cached(entry.answer(), entry.confidence(),
+                entry.contextDocumentsCount(), entry.retrievalTiers(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Polls for the entry the lock holder writes. Stops early once the lock is gone without
+     * an entry, as when the holder failed or its answer was not worth caching.
+     */
+    private Entry awaitEntry(String key, String lockKey) {
+        long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Entry entry = read(key);
+            if (entry != null) {
+                return entry;
+            }
+            if (!isLocked(lockKey)) {
+                return read(key);
+            }
+        }
+        return null;
+    }
+
+    private boolean isLocked(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(lockKey));
+        } catch (Exception e) {
+            logger.debug("Could not check answer lock in Redis: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Without Redis there is nothing to coordinate with, so a failed attempt counts as
+     * holding the lock
+     */
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token.getBytes(StandardCharsets.UTF_8), lockTimeout);
+            return !Boolean.FALSE.equals(acquired);
+        } catch (Exception e) {
+            logger.debug("Could not take answer lock in Redis: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void releaseLock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), (Object) token.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.debug("Could not release answer lock in Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Redis problems are not worth failing a question over; they count as a miss
+     */
+    private Entry read(String key) {
+        try {
+            byte[] compressed = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (compressed == null) {
+                return null;
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                return objectMapper.readValue(in, Entry.class);
+            }
+        } catch (Exception e) {
+            logger.debug("Could not read cached answer from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, ProgrammingChatbotService.ChatbotResponse response) {
+        if (!response.isSuccessful()) {
+            return;
+        }
+        Entry entry = new Entry(response.getAnswer(), response.getConfidence(), response.getContextDocumentsCount(),
+                response.getRetrievalTiers(), response.getResponseTimeMs(),
+                System.currentTimeMillis() + ttl.toMillis());
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (OutputStream out = new GZIPOutputStream(buffer)) {
+                objectMapper.writeValue(out, entry);
+            }
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, buffer.toByteArray(), ttl);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not write cached answer to Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The key includes the knowledge base generation, so re-ingesting a document retires
+     * every earlier answer at once
+     */
+    private String key(String question) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalize(question).getBytes(StandardCharsets.UTF_8));
+            return generation() + ":" + HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The knowledge base generation shared by every node, "0" when Redis cannot be read
+     */
+    public String generation() {
+        try {
+            byte[] value = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return value != null ? new String(value, StandardCharsets.UTF_8) : "0";
+        } catch (Exception e) {
+            logger.debug("Could not read answer cache generation from Redis: {}", e.getMessage());
+            return "0";
+        }
+    }
+
+    record Entry(String answer, String confidence, int contextDocumentsCount, Map<String, Integer> retrievalTiers,
+                 long computeMillis, long expiresAt) {
+    }
+}
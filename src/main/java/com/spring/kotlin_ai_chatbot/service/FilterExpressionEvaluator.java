@@ -0,0 +1,88 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * Evaluates Spring AI filter expressions against a document's metadata in memory, with
+ * the same semantics QdrantFilterConverter gives them on the server: a missing key never
+ * matches a comparison, and numbers compare by value regardless of their boxed type.
+ */
+public final class FilterExpressionEvaluator {
+
+    private FilterExpressionEvaluator() {
+    }
+
+    public static boolean matches(Filter.Expression expression, Map<String, Object> metadata) {
+        return expression == null || evaluate(expression, metadata);
+    }
+
+    private static boolean evaluate(Filter.Operand operand, Map<String, Object> metadata) {
+        if (operand instanceof Filter.Group group) {
+            return evaluate(group.content(), metadata);
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            throw new IllegalArgumentException("Unsupported filter operand: " + operand);
+        }
+
+        return switch (expression.type()) {
+            case AND -> evaluate(expression.left(), metadata) && evaluate(expression.right(), metadata);
+            case OR -> evaluate(expression.left(), metadata) || evaluate(expression.right(), metadata);
+            case NOT -> !evaluate(expression.left(), metadata);
+            case EQ -> equal(actual(expression, metadata), value(expression));
+            case NE -> !equal(actual(expression, metadata), value(expression));
+            case IN -> values(expression).stream().anyMatch(value -> equal(actual(expression, metadata), value));
+            case NIN -> values(expression).stream().noneMatch(value -> equal(actual(expression, metadata), value));
+            case GT -> compares(expression, metadata, order -> order > 0);
+            case GTE -> compares(expression, metadata, order -> order >= 0);
+            case LT -> compares(expression, metadata, order -> order < 0);
+            case LTE -> compares(expression, metadata, order -> order <= 0);
+            default -> throw new IllegalArgumentException("Unsupported filter operation: " + expression.type());
+        };
+    }
+
+    private static boolean equal(Object actual, Object expected) {
+        if (actual == null) {
+            return false;
+        }
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+        }
+        return Objects.equals(actual, expected) || actual.toString().equals(String.valueOf(expected));
+    }
+
+    private static boolean compares(Filter.Expression expression, Map<String, Object> metadata, IntPredicate order) {
+        Object actual = actual(expression, metadata);
+        Object expected = value(expression);
+        if (actual == null) {
+            return false;
+        }
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return order.test(Double.compare(a.doubleValue(), b.doubleValue()));
+        }
+        return order.test(actual.toString().compareTo(String.valueOf(expected)));
+    }
+
+    private static Object actual(Filter.Expression expression, Map<String, Object> metadata) {
+        if (expression.left() instanceof Filter.Key key) {
+            return metadata.get(key.key().replaceAll("^[\"']|[\"']$", ""));
+        }
+        throw new IllegalArgumentException("Expected a key on the left of " + expression.type());
+    }
+
+    private static Object value(Filter.Expression expression) {
+        if (expression.right() instanceof Filter.Value value) {
+            return value.value();
+        }
+        throw new IllegalArgumentException("Expected a value on the right of " + expression.type());
+    }
+
+    private static List<?> values(Filter.Expression expression) {
+        Object value = value(expression);
+        return value instanceof List<?> list ? list : List.of(value);
+    }
+}
@@ -0,0 +1,410 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph for cosine similarity over float vectors.
+ * Vectors are normalized on insert and kept in one flat float array, so a similarity is a
+ * dot product over contiguous memory. Neighbor lists are int arrays whose first element is
+ * the neighbor count.
+ *
+ * Nodes are never removed from the graph; deleting marks them so searches skip them in
+ * results while still routing through them. Callers rebuild the index once deleted nodes
+ * dominate.
+ *
+ * Not thread-safe: concurrent searches are fine, but writes need exclusive access.
+ */
+public class HnswIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+
+    private float[] vectors;
+    private int[][][] links;
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimensions, int m, int efConstruction) {
+        this(dimensions, m, efConstruction, 1024);
+    }
+
+    public HnswIndex(int dimensions, int m, int efConstruction, int initialCapacity) {
+        if (dimensions <= 0 || m < 2) {
+            throw new IllegalArgumentException("dimensions must be positive and m at least 2");
+        }
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(m, efConstruction);
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new SplittableRandom(42);
+        this.vectors = new float[Math.max(1, initialCapacity) * dimensions];
+        this.links = new int[Math.max(1, initialCapacity)][][];
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Number of nodes in the graph, including deleted ones
+     */
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return size - deletedCount;
+    }
+
+    public int deletedCount() {
+        return deletedCount;
+    }
+
+    public boolean isDeleted(int node) {
+        return deleted.get(node);
+    }
+
+    public void markDeleted(int node) {
+        if (node >= 0 && node < size && !deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Inserts the vector and returns its node number
+     */
+    public int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        int node = size;
+        ensureCapacity(node + 1);
+        normalizeInto(vector, vectors, node * dimensions);
+
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxLinks(l) + 1];
+        }
+        size++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vectors, node * dimensions, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vectors, node * dimensions, current, efConstruction, l, null);
+            int[] selected = selectNeighbors(candidates, maxLinks(l));
+            int[] own = links[node][l];
+            own[0] = selected.length;
+            System.arraycopy(selected, 0, own, 1, selected.length);
+            for (int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+            current = candidates.get(0).node();
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    /**
+     * Approximate top-k by similarity among nodes that are not deleted and pass accept.
+     * The breadth ef is raised to k when smaller. Results are ordered best first.
+     */
+    public List<Candidate> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        float[] normalized = new float[dimensions];
+        normalizeInto(query, normalized, 0);
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(normalized, 0, current, l);
+        }
+        IntPredicate live = node -> !deleted.get(node) && (accept == null || accept.test(node));
+        List<Candidate> results = searchLayer(normalized, 0, current, Math.max(ef, k), 0, live);
+        return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+    }
+
+    /**
+     * Brute-force top-k, used to measure recall and for tiny or heavily filtered sets
+     */
+    public List<Candidate> exactSearch(float[] query, int k, IntPredicate accept) {
+        float[] normalized = new float[dimensions];
+        normalizeInto(query, normalized, 0);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Candidate.WORST_FIRST);
+        for (int node = 0; node < size; node++) {
+            if (deleted.get(node) || (accept != null && !accept.test(node))) {
+                continue;
+            }
+            best.add(new Candidate(node, dot(normalized, 0, vectors, node * dimensions)));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<Candidate> results = new ArrayList<>(best);
+        results.sort(Candidate.BEST_FIRST);
+        return results;
+    }
+
+    /**
+     * Copy of the stored, normalized vector of a node
+     */
+    public float[] vector(int node) {
+        return Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+    }
+
+    private int greedyClosest(float[] query, int queryOffset, int start, int level) {
+        int current = start;
+        float currentSimilarity = dot(query, queryOffset, vectors, current * dimensions);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links[current][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                float similarity = dot(query, queryOffset, vectors, neighbors[i] * dimensions);
+                if (similarity > currentSimilarity) {
+                    currentSimilarity = similarity;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first expansion of one layer. Every reached node is expanded, but only nodes
+     * passing accept enter the result set, so filtered searches keep walking the graph
+     * until ef matching nodes are found or the reachable graph is exhausted.
+     */
+    private List<Candidate> searchLayer(float[] query, int queryOffset, int start, int ef, int level,
+                                        IntPredicate accept) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Candidate.BEST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Candidate.WORST_FIRST);
+
+        Candidate first = new Candidate(start, dot(query, queryOffset, vectors, start * dimensions));
+        visited.set(start);
+        frontier.add(first);
+        if (accept == null || accept.test(start)) {
+            results.add(first);
+        }
+
+        while (!frontier.isEmpty()) {
+            Candidate candidate = frontier.poll();
+            if (results.size() >= ef && candidate.similarity() < results.peek().similarity()) {
+                break;
+            }
+            int[] neighbors = links[candidate.node()][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float similarity = dot(query, queryOffset, vectors, neighbor * dimensions);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Candidate next = new Candidate(neighbor, similarity);
+                    frontier.add(next);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.add(next);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort(Candidate.BEST_FIRST);
+        return ordered;
+    }
+
+    /**
+     * Keeps a candidate only if it is closer to the new node than to every neighbor
+     * already kept, which spreads links across directions; remaining slots are filled with
+     * the closest skipped candidates
+     */
+    private int[] selectNeighbors(List<Candidate> candidates, int limit) {
+        List<Candidate> kept = new ArrayList<>(limit);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (kept.size() >= limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate selected : kept) {
+                if (dot(vectors, candidate.node() * dimensions, vectors, selected.node() * dimensions)
+                        > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? kept : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && kept.size() < limit; i++) {
+            kept.add(skipped.get(i));
+        }
+        int[] nodes = new int[kept.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = kept.get(i).node();
+        }
+        return nodes;
+    }
+
+    private void connect(int node, int neighbor, int level) {
+        int[] nodeLinks = links[node][level];
+        int count = nodeLinks[0];
+        if (count < nodeLinks.length - 1) {
+            nodeLinks[count + 1] = neighbor;
+            nodeLinks[0] = count + 1;
+            return;
+        }
+
+        List<Candidate> candidates = new ArrayList<>(count + 1);
+        int offset = node * dimensions;
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Candidate(nodeLinks[i], dot(vectors, offset, vectors, nodeLinks[i] * dimensions)));
+        }
+        candidates.add(new Candidate(neighbor, dot(vectors, offset, vectors, neighbor * dimensions)));
+        candidates.sort(Candidate.BEST_FIRST);
+        int[] selected = selectNeighbors(candidates, count);
+        nodeLinks[0] = selected.length;
+        System.arraycopy(selected, 0, nodeLinks, 1, selected.length);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes > links.length) {
+            int capacity = Math.max(nodes, links.length * 2);
+            links = Arrays.copyOf(links, capacity);
+            vectors = Arrays.copyOf(vectors, capacity * dimensions);
+        }
+    }
+
+    private void normalizeInto(float[] source, float[] target, int offset) {
+        double norm = 0;
+        for (float value : source) {
+            norm += value * value;
+        }
+        float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+        for (int i = 0; i < dimensions; i++) {
+            target[offset + i] = source[i] * scale;
+        }
+    }
+
+    private float dot(float[] a, int aOffset, float[] b, int bOffset) {
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(dimensions);
+        out.writeInt(m);
+        out.writeInt(efConstruction);
+        out.writeInt(size);
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        for (int node = 0; node < size; node++) {
+            out.writeBoolean(deleted.get(node));
+            int offset = node * dimensions;
+            for (int i = 0; i < dimensions; i++) {
+                out.writeFloat(vectors[offset + i]);
+            }
+            out.writeByte(links[node].length);
+            for (int[] levelLinks : links[node]) {
+                out.writeShort(levelLinks[0]);
+                for (int i = 1; i <= levelLinks[0]; i++) {
+                    out.writeInt(levelLinks[i]);
+                }
+            }
+        }
+    }
+
+    public static HnswIndex readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported HNSW index format " + version);
+        }
+        int dimensions = in.readInt();
+        int m = in.readInt();
+        int efConstruction = in.readInt();
+        int size = in.readInt();
+
+        HnswIndex index = new HnswIndex(dimensions, m, efConstruction, Math.max(1, size));
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int node = 0; node < size; node++) {
+            if (in.readBoolean()) {
+                index.deleted.set(node);
+                index.deletedCount++;
+            }
+            int offset = node * dimensions;
+            for (int i = 0; i < dimensions; i++) {
+                index.vectors[offset + i] = in.readFloat();
+            }
+            int levels = in.readUnsignedByte();
+            index.links[node] = new int[levels][];
+            for (int l = 0; l < levels; l++) {
+                int count = in.readUnsignedShort();
+                int[] levelLinks = new int[index.maxLinks(l) + 1];
+                levelLinks[0] = count;
+                for (int i = 1; i <= count; i++) {
+                    levelLinks[i] = in.readInt();
+                }
+                index.links[node][l] = levelLinks;
+            }
+        }
+        index.size = size;
+        return index;
+    }
+
+    public record Candidate(int node, float similarity) {
+        static final Comparator<Candidate> BEST_FIRST =
+                (a, b) -> Float.compare(b.similarity, a.similarity);
+        static final Comparator<Candidate> WORST_FIRST =
+                (a, b) -> Float.compare(a.similarity, b.similarity);
+    }
+}
@@ -0,0 +1,149 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.spring.kotlin_ai_chatbot.data.IngestionCheckpoint;
+
+/**
+ * Records in Redis how far an ingestion got, so a document that failed halfway resumes
+ * after its last committed batch instead of paying for every batch again.
+ */
+@Service
+public class IngestionCheckpointService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionCheckpointService.class);
+    private static final String CHECKPOINT_KEY_PREFIX = "ingest:checkpoint:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public IngestionCheckpointService(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Starts tracking a run, picking up the existing checkpoint if it was written for the
+     * same file content and settings
+     */
+    public Tracker begin(String source, String fileHash, String pipelineFingerprint) {
+        int resumeAfter = -1;
+        List<String> droppedChunkIds = List.of();
+        try {
+            Object stored = redisTemplate.opsForValue().get(getCheckpointKey(source));
+            if (stored instanceof IngestionCheckpoint checkpoint && checkpoint.matches(fileHash, pipelineFingerprint)) {
+                resumeAfter = checkpoint.getLastCommittedBatch();
+                if (checkpoint.getDroppedChunkIds() != null) {
+                    droppedChunkIds = checkpoint.getDroppedChunkIds();
+                }
+                logger.info("🔁 Resuming {} after batch {} (checkpoint from {})", 
+                           source, resumeAfter, checkpoint.getUpdatedAt());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read ingestion checkpoint for {}: {}", source, e.getMessage());
+        }
+        return new Tracker(source, fileHash, pipelineFingerprint, resumeAfter, droppedChunkIds);
+    }
+
+    private void save(IngestionCheckpoint checkpoint) {
+        try {
+            redisTemplate.opsForValue().set(getCheckpointKey(checkpoint.getSource()), checkpoint);
+        } catch (Exception e) {
+            logger.warn("Could not save ingestion checkpoint for {}: {}", checkpoint.getSource(), e.getMessage());
+        }
+    }
+
+    private void delete(String source) {
+        try {
+            redisTemplate.delete(getCheckpointKey(source));
+        } catch (Exception e) {
+            logger.warn("Could not delete ingestion checkpoint for {}: {}", source, e.getMessage());
+        }
+    }
+
+    private String getCheckpointKey(String source) {
+        return CHECKPOINT_KEY_PREFIX + source;
+    }
+
+    /**
+     * Batches may be committed out of order by concurrent store workers; the checkpoint
+     * only advances over the contiguous prefix of committed batches. Chunks dropped as
+     * near-duplicates are recorded too, since a resumed run must not take them for stored.
+     */
+    public class Tracker {
+
+        private final String source;
+        private final String fileHash;
+        private final String pipelineFingerprint;
+        private final int resumeAfter;
+        private final BitSet committed = new BitSet();
+        private final Set<String> droppedChunkIds = ConcurrentHashMap.newKeySet();
+        private int lastContiguous;
+
+        private Tracker(String source, String fileHash, String pipelineFingerprint, int resumeAfter,
+                        List<String> droppedChunkIds) {
+            this.source = source;
+            this.fileHash = fileHash;
+            this.pipelineFingerprint = pipelineFingerprint;
+            this.resumeAfter = resumeAfter;
+            this.lastContiguous = resumeAfter;
+            this.droppedChunkIds.addAll(droppedChunkIds);
+        }
+
+        public int getResumeAfter() {
+            return resumeAfter;
+        }
+
+        /**
+         * True for batches that a previous run already stored
+         */
+        public boolean isAlreadyCommitted(int batchSequence) {
+            return batchSequence <= resumeAfter;
+        }
+
+        /**
+         * True for chunks of committed batches that were dropped rather than stored
+         */
+        public boolean wasDropped(String chunkId) {
+            return droppedChunkIds.contains(chunkId);
+        }
+
+        /**
+         * Recorded with the next checkpoint, so call before committing the chunk's batch
+         */
+        public void markDropped(String chunkId) {
+            droppedChunkIds.add(chunkId);
+        }
+
+        public void markStored(String chunkId) {
+            droppedChunkIds.remove(chunkId);
+        }
+
+        public synchronized void markCommitted(int batchSequence) {
+            committed.set(batchSequence);
+            int before = lastContiguous;
+            while (committed.get(lastContiguous + 1)) {
+                lastContiguous++;
+            }
+            if (lastContiguous > before) {
+                save(new IngestionCheckpoint(source, fileHash, pipelineFingerprint, 
+                                             lastContiguous, LocalDateTime.now(), new ArrayList<>(droppedChunkIds)));
+            }
+        }
+
+        /**
+         * The document is fully stored; the manifest takes over from here
+         */
+        public void complete() {
+            delete(source);
+        }
+    }
+}
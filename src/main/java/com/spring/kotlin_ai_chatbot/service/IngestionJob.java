@@ -0,0 +1,250 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A background reload of the knowledge base. The job listens to the ingestion it runs
+ * and keeps per-document counters that status requests turn into rates and ETAs.
+ */
+public class IngestionJob implements IngestionProgressListener {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final Map<String, DocumentProgress> documents = new LinkedHashMap<>();
+    private final CompletableFuture<PdfProcessingService.BulkProcessingResult> completion = new CompletableFuture<>();
+
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String errorMessage;
+
+    public IngestionJob(String id) {
+        this.id = id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isActive() {
+        return state == State.QUEUED || state == State.RUNNING;
+    }
+
+    /**
+     * Completes with the bulk result once the job has finished, however it finished
+     */
+    public CompletableFuture<PdfProcessingService.BulkProcessingResult> getCompletion() {
+        return completion;
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void markFinished(PdfProcessingService.BulkProcessingResult result) {
+        finishedAt = LocalDateTime.now();
+        if (cancelRequested) {
+            state = State.CANCELLED;
+        } else {
+            state = result.hasFailures() && result.getSuccessfulCount() == 0 ? State.FAILED : State.COMPLETED;
+        }
+        completion.complete(result);
+    }
+
+    void markFailed(Throwable error) {
+        finishedAt = LocalDateTime.now();
+        errorMessage = error.getMessage();
+        state = cancelRequested ? State.CANCELLED : State.FAILED;
+        completion.completeExceptionally(error);
+    }
+
+    @Override
+    public void onDocumentsFound(List<String> sources) {
+        synchronized (documents) {
+            sources.forEach(source -> documents.computeIfAbsent(source, DocumentProgress::new));
+        }
+    }
+
+    @Override
+    public void onDocumentStarted(String source) {
+        document(source).startedNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onPageCount(String source, int totalPages) {
+        document(source).totalPages = totalPages;
+    }
+
+    @Override
+    public void onPagesParsed(String source, int lastPageNumber) {
+        document(source).pagesParsed = lastPageNumber;
+    }
+
+    @Override
+    public void onChunksCreated(String source, int chunks) {
+        document(source).chunksCreated.addAndGet(chunks);
+    }
+
+    @Override
+    public void onBatchStored(String source, int chunksStored, int chunksEmbedded) {
+        DocumentProgress progress = document(source);
+        progress.chunksStored.addAndGet(chunksStored);
+        progress.chunksEmbedded.addAndGet(chunksEmbedded);
+    }
+
+    @Override
+    public void onDocumentFinished(String source, PdfProcessingService.ProcessingResult result) {
+        DocumentProgress progress = document(source);
+        progress.finishedNanos = System.nanoTime();
+        progress.state = result.isUnchanged() ? "UNCHANGED" : result.isSuccessful() ? "COMPLETED" : "FAILED";
+        progress.errorMessage = result.getErrorMessage();
+        progress.duplicatesDropped = result.getDuplicatesDropped();
+        progress.boilerplateTokensRemoved = result.getBoilerplateTokensRemoved();
+        if (result.isSuccessful() && progress.totalPages > 0) {
+            progress.pagesParsed = progress.totalPages;
+        }
+    }
+
+    private DocumentProgress document(String source) {
+        synchronized (documents) {
+            return documents.computeIfAbsent(source, DocumentProgress::new);
+        }
+    }
+
+    /**
+     * Point-in-time view of the job for the status endpoint
+     */
+    public JobStatus snapshot() {
+        List<DocumentStatus> documentStatuses = new ArrayList<>();
+        synchronized (documents) {
+            documents.values().forEach(progress -> documentStatuses.add(progress.snapshot()));
+        }
+
+        int completed = 0;
+        int failed = 0;
+        int chunksEmbedded = 0;
+        double chunksPerSecond = 0;
+        for (DocumentStatus document : documentStatuses) {
+            chunksEmbedded += document.getChunksEmbedded();
+            if ("RUNNING".equals(document.getState())) {
+                chunksPerSecond += document.getChunksPerSecond();
+            } else if ("FAILED".equals(document.getState())) {
+                failed++;
+            } else if (!"PENDING".equals(document.getState())) {
+                completed++;
+            }
+        }
+
+        return new JobStatus(id, state.name(), submittedAt, startedAt, finishedAt,
+                documentStatuses.size(), completed, failed, chunksEmbedded,
+                Math.round(chunksPerSecond * 10) / 10.0, errorMessage, documentStatuses);
+    }
+
+    private static class DocumentProgress {
+        private final String source;
+        private final AtomicInteger chunksCreated = new AtomicInteger();
+        private final AtomicInteger chunksStored = new AtomicInteger();
+        private final AtomicInteger chunksEmbedded = new AtomicInteger();
+        private volatile String state;
+        private volatile int totalPages;
+        private volatile int pagesParsed;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile String errorMessage;
+        private volatile int duplicatesDropped;
+        private volatile int boilerplateTokensRemoved;
+
+        DocumentProgress(String source) {
+            this.source = source;
+        }
+
+        /**
+         * The rate is chunks stored per second of this document's wall time. The ETA
+         * extrapolates the total chunk count from the share of pages parsed so far.
+         */
+        DocumentStatus snapshot() {
+            long started = startedNanos;
+            long finished = finishedNanos;
+            String currentState = state != null ? state : started == 0 ? "PENDING" : "RUNNING";
+            int stored = chunksStored.get();
+            int created = chunksCreated.get();
+
+            double chunksPerSecond = 0;
+            Long etaSeconds = null;
+            if (started != 0) {
+                long end = finished != 0 ? finished : System.nanoTime();
+                double elapsedSeconds = Math.max(1e-3, (end - started) / 1e9);
+                chunksPerSecond = stored / elapsedSeconds;
+
+                if (finished != 0) {
+                    etaSeconds = 0L;
+                } else if (chunksPerSecond > 0 && pagesParsed > 0 && totalPages > 0) {
+                    double estimatedTotal = (double) created * totalPages / pagesParsed;
+                    etaSeconds = Math.round(Math.max(0, estimatedTotal - stored) / chunksPerSecond);
+                }
+            }
+
+            return new DocumentStatus(source, currentState, totalPages, pagesParsed, created, stored,
+                    chunksEmbedded.get(), duplicatesDropped, boilerplateTokensRemoved,
+                    Math.round(chunksPerSecond * 10) / 10.0, etaSeconds, errorMessage);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class JobStatus {
+        private final String jobId;
+        private final String state;
+        private final LocalDateTime submittedAt;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime finishedAt;
+        private final int totalDocuments;
+        private final int completedDocuments;
+        private final int failedDocuments;
+        private final int chunksEmbedded;
+        private final double chunksPerSecond;
+        private final String errorMessage;
+        private final List<DocumentStatus> documents;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DocumentStatus {
+        private final String source;
+        private final String state;
+        private final int totalPages;
+        private final int pagesParsed;
+        private final int chunksCreated;
+        private final int chunksStored;
+        private final int chunksEmbedded;
+        private final int duplicatesDropped;
+        private final int boilerplateTokensRemoved;
+        private final double chunksPerSecond;
+        private final Long etaSeconds;
+        private final String errorMessage;
+    }
+}
@@ -0,0 +1,128 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs knowledge base reloads as background jobs so admin requests return immediately.
+ * At most one reload runs at a time; recent jobs are kept in memory for status polling.
+ */
+@Service
+public class IngestionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private final InitializationService initializationService;
+    private final ExecutorService executor;
+    private final AtomicReference<IngestionJob> activeJob = new AtomicReference<>();
+    private final Map<String, IngestionJob> recentJobs;
+
+    public IngestionJobService(InitializationService initializationService,
+                               @Value("${app.pdf.processing.jobs.history-size:20}") int historySize) {
+        this.initializationService = initializationService;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reload-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.recentJobs = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IngestionJob> eldest) {
+                return size() > Math.max(1, historySize) && !eldest.getValue().isActive();
+            }
+        };
+    }
+
+    /**
+     * Queues a reload of all documents. Fails with IllegalStateException if reloading is
+     * not allowed here, or with JobAlreadyRunningException while another reload is active.
+     */
+    public IngestionJob submitReload() {
+        initializationService.ensureReloadAllowed();
+
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString());
+        IngestionJob running = activeJob.get();
+        if ((running != null && running.isActive()) || !activeJob.compareAndSet(running, job)) {
+            throw new JobAlreadyRunningException(activeJob.get());
+        }
+
+        synchronized (recentJobs) {
+            recentJobs.put(job.getId(), job);
+        }
+
+        executor.execute(() -> run(job));
+        logger.info("📥 Reload job {} submitted", job.getId());
+        return job;
+    }
+
+    public Optional<IngestionJob> findJob(String jobId) {
+        synchronized (recentJobs) {
+            return Optional.ofNullable(recentJobs.get(jobId));
+        }
+    }
+
+    /**
+     * Asks a job to stop. Documents already stored stay stored, and the document in
+     * progress resumes from its checkpoint on the next reload.
+     */
+    public Optional<IngestionJob> cancel(String jobId) {
+        Optional<IngestionJob> job = findJob(jobId);
+        job.filter(IngestionJob::isActive).ifPresent(active -> {
+            active.requestCancel();
+            logger.info("🛑 Cancellation requested for reload job {}", jobId);
+        });
+        return job;
+    }
+
+    private void run(IngestionJob job) {
+        if (job.isCancelled()) {
+            job.markFinished(new PdfProcessingService.BulkProcessingResult());
+            return;
+        }
+
+        job.markRunning();
+        try {
+            PdfProcessingService.BulkProcessingResult result = initializationService.reloadAllDocuments(job);
+            job.markFinished(result);
+            logger.info("🏁 Reload job {} finished as {}", job.getId(), job.getState());
+        } catch (Exception e) {
+            logger.error("❌ Reload job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.markFailed(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        IngestionJob running = activeJob.get();
+        if (running != null && running.isActive()) {
+            running.requestCancel();
+        }
+        executor.shutdown();
+    }
+
+    public static class JobAlreadyRunningException extends IllegalStateException {
+
+        private final transient IngestionJob activeJob;
+
+        public JobAlreadyRunningException(IngestionJob activeJob) {
+            super("Reload job " + activeJob.getId() + " is already " + activeJob.getState().name().toLowerCase());
+            this.activeJob = activeJob;
+        }
+
+        public IngestionJob getActiveJob() {
+            return activeJob;
+        }
+    }
+}
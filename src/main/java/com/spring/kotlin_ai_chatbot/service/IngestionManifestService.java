@@ -0,0 +1,125 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.spring.kotlin_ai_chatbot.data.IngestionManifest;
+
+/**
+ * Keeps one manifest per ingested source in Redis so reloads can tell which files and
+ * chunks are already in the vector store. Chunk ids are derived from the source name and
+ * the chunk's content hash, which makes re-ingesting a chunk an in-place upsert.
+ */
+@Service
+public class IngestionManifestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionManifestService.class);
+    private static final String MANIFEST_KEY_PREFIX = "ingest:manifest:";
+    private static final int HASH_BYTES = 16;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public IngestionManifestService(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Looks up the manifest for a source. Redis errors are treated as a missing manifest
+     * so that ingestion still works, just without the skip.
+     */
+    public Optional<IngestionManifest> find(String source) {
+        try {
+            Object manifest = redisTemplate.opsForValue().get(getManifestKey(source));
+            if (manifest instanceof IngestionManifest ingestionManifest) {
+                return Optional.of(ingestionManifest);
+            }
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.warn("Could not read ingestion manifest for {}: {}", source, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(IngestionManifest manifest) {
+        try {
+            redisTemplate.opsForValue().set(getManifestKey(manifest.getSource()), manifest);
+            logger.debug("Saved ingestion manifest for {} with {} chunks", 
+                        manifest.getSource(), manifest.getChunkHashes().size());
+        } catch (Exception e) {
+            logger.warn("Could not save ingestion manifest for {}: {}", manifest.getSource(), e.getMessage());
+        }
+    }
+
+    /**
+     * Clears the stored file hash so the next ingestion of the source is not skipped, while
+     * its stored chunks are still recognised and kept
+     */
+    public void invalidate(String source) {
+        find(source).ifPresent(manifest -> {
+            manifest.setFileHash(null);
+            save(manifest);
+        });
+    }
+
+    public void delete(String source) {
+        try {
+            redisTemplate.delete(getManifestKey(source));
+        } catch (Exception e) {
+            logger.warn("Could not delete ingestion manifest for {}: {}", source, e.getMessage());
+        }
+    }
+
+    /**
+     * Hashes the full content of a resource without holding it in memory
+     */
+    public static String hashResource(Resource resource) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = resource.getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Content hash of a chunk, truncated to 128 bits
+     */
+    public static String hashText(String text) {
+        byte[] hash = newDigest().digest(text.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash, 0, HASH_BYTES);
+    }
+
+    /**
+     * Stable point id for a chunk. Qdrant only accepts UUIDs or integers as ids.
+     */
+    public static String chunkId(String source, String chunkHash) {
+        return UUID.nameUUIDFromBytes((source + ":" + chunkHash).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String getManifestKey(String source) {
+        return MANIFEST_KEY_PREFIX + source;
+    }
+}
@@ -0,0 +1,308 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Runs ingestion of a single document as a chain of stages connected by bounded queues:
+ * parse -> split -> enrich -> store. Each stage has its own threads, so embedding of one
+ * batch overlaps with parsing and splitting of later pages, while the bounded queues stop
+ * a fast parser from piling pages up on the heap when the embedding provider is slow.
+ */
+public class IngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    private static final List<Document> END_OF_PAGES = new ArrayList<>();
+    private static final Batch END_OF_BATCHES = new Batch(-1, List.of());
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final String name;
+    private final int queueCapacity;
+    private final int enrichWorkers;
+    private final int storeWorkers;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public IngestionPipeline(String name, int queueCapacity, int enrichWorkers, int storeWorkers) {
+        this.name = name;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.enrichWorkers = Math.max(1, enrichWorkers);
+        this.storeWorkers = Math.max(1, storeWorkers);
+    }
+
+    /**
+     * Runs all stages to completion. The first failure in any stage stops the others and
+     * is rethrown to the caller; a callback that throws CancellationException stops the
+     * pipeline the same way.
+     */
+    public PipelineStats run(PageSource source,
+                             ChunkSplitter splitter,
+                             BatchLimits limits,
+                             BatchEnricher enricher,
+                             BatchWriter writer) throws Exception {
+        BlockingQueue<List<Document>> pageQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch> splitQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch> storeQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        AtomicInteger pagesRead = new AtomicInteger();
+        AtomicInteger chunksCreated = new AtomicInteger();
+        AtomicInteger chunksStored = new AtomicInteger();
+        AtomicInteger activeEnrichers = new AtomicInteger(enrichWorkers);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2 + enrichWorkers + storeWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "ingest-" + name + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<?>> stages = new ArrayList<>();
+        try {
+            stages.add(executor.submit(stage("parse", () -> {
+                try {
+                    source.read(pages -> {
+                        pagesRead.addAndGet(pages.size());
+                        put(pageQueue, pages);
+                    });
+                } finally {
+                    putEnd(pageQueue, END_OF_PAGES);
+                }
+            })));
+
+            stages.add(executor.submit(stage("split", () -> {
+                int sequence = 0;
+                int chunkIndex = 0;
+                int currentTokens = 0;
+                List<Document> current = new ArrayList<>();
+                try {
+                    for (List<Document> pages = take(pageQueue); ; pages = take(pageQueue)) {
+                        boolean endOfPages = pages == END_OF_PAGES;
+                        List<Document> chunks = endOfPages ? splitter.flush() : splitter.split(pages);
+                        for (Document chunk : chunks) {
+                            chunk.getMetadata().put(ChunkMetadata.CHUNK_INDEX, chunkIndex++);
+                            int tokens = limits.tokenCounter().applyAsInt(chunk);
+                            if (!current.isEmpty() && currentTokens + tokens > limits.maxTokens()) {
+                                put(splitQueue, new Batch(sequence++, current));
+                                current = new ArrayList<>();
+                                currentTokens = 0;
+                            }
+                            current.add(chunk);
+                            currentTokens += tokens;
+                            if (current.size() >= limits.maxChunks()) {
+                                put(splitQueue, new Batch(sequence++, current));
+                                current = new ArrayList<>();
+                                currentTokens = 0;
+                            }
+                        }
+                        if (endOfPages) {
+                            break;
+                        }
+                    }
+                    if (!current.isEmpty()) {
+                        put(splitQueue, new Batch(sequence, current));
+                    }
+                    chunksCreated.set(chunkIndex);
+                } finally {
+                    for (int i = 0; i < enrichWorkers; i++) {
+                        putEnd(splitQueue, END_OF_BATCHES);
+                    }
+                }
+            })));
+
+            for (int i = 0; i < enrichWorkers; i++) {
+                stages.add(executor.submit(stage("enrich", () -> {
+                    try {
+                        for (Batch batch = take(splitQueue); batch != END_OF_BATCHES; batch = take(splitQueue)) {
+                            enricher.enrich(batch);
+                            put(storeQueue, batch);
+                        }
+                    } finally {
+                        if (activeEnrichers.decrementAndGet() == 0) {
+                            for (int j = 0; j < storeWorkers; j++) {
+                                putEnd(storeQueue, END_OF_BATCHES);
+                            }
+                        }
+                    }
+                })));
+            }
+
+            for (int i = 0; i < storeWorkers; i++) {
+                stages.add(executor.submit(stage("store", () -> {
+                    for (Batch batch = take(storeQueue); batch != END_OF_BATCHES; batch = take(storeQueue)) {
+                        writer.write(batch);
+                        chunksStored.addAndGet(batch.getChunks().size());
+                    }
+                })));
+            }
+
+            for (Future<?> stage : stages) {
+                try {
+                    stage.get();
+                } catch (ExecutionException e) {
+                    // the recorded failure is rethrown below
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof Exception exception) {
+            throw exception;
+        } else if (error != null) {
+            throw new IllegalStateException("Ingestion pipeline failed for " + name, error);
+        }
+
+        return new PipelineStats(pagesRead.get(), chunksCreated.get(), chunksStored.get());
+    }
+
+    private Runnable stage(String stageName, StageBody body) {
+        return () -> {
+            try {
+                body.run();
+            } catch (Throwable t) {
+                if (!failure.compareAndSet(null, t)) {
+                    logger.debug("Stage {} of {} stopped after upstream failure", stageName, name);
+                } else if (t instanceof CancellationException) {
+                    logger.info("Stage {} of {} cancelled: {}", stageName, name, t.getMessage());
+                } else {
+                    logger.error("Stage {} failed for {}: {}", stageName, name, t.getMessage());
+                }
+            }
+        };
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            checkNotFailed();
+        }
+    }
+
+    /**
+     * End markers are delivered even after a failure so that blocked consumers wake up,
+     * but are dropped if nobody is left to drain a full queue.
+     */
+    private <T> void putEnd(BlockingQueue<T> queue, T marker) throws InterruptedException {
+        while (!queue.offer(marker, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                return;
+            }
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        checkNotFailed();
+        T item;
+        while ((item = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+            checkNotFailed();
+        }
+        return item;
+    }
+
+    private void checkNotFailed() {
+        if (failure.get() != null) {
+            throw new CancellationException("Pipeline " + name + " aborted");
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageBody {
+        void run() throws Exception;
+    }
+
+    /**
+     * Produces page groups in document order
+     */
+    @FunctionalInterface
+    public interface PageSource {
+        void read(PageSink sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface PageSink {
+        void accept(List<Document> pages) throws InterruptedException;
+    }
+
+    /**
+     * Turns page groups into chunks. Splitters that hold text back between calls release
+     * it from flush once all pages have been read.
+     */
+    @FunctionalInterface
+    public interface ChunkSplitter {
+        List<Document> split(List<Document> pages);
+
+        default List<Document> flush() {
+            return List.of();
+        }
+
+        default ChunkSplitter andThen(UnaryOperator<List<Document>> next) {
+            ChunkSplitter first = this;
+            return new ChunkSplitter() {
+                @Override
+                public List<Document> split(List<Document> pages) {
+                    return next.apply(first.split(pages));
+                }
+
+                @Override
+                public List<Document> flush() {
+                    return next.apply(first.flush());
+                }
+            };
+        }
+    }
+
+    @FunctionalInterface
+    public interface BatchEnricher {
+        void enrich(Batch batch) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(Batch batch) throws Exception;
+    }
+
+    /**
+     * A batch is closed before it would exceed either the chunk count or the summed token
+     * count. A single chunk larger than the token ceiling still forms a batch of its own.
+     */
+    public record BatchLimits(int maxChunks, int maxTokens, ToIntFunction<Document> tokenCounter) {
+    }
+
+    /**
+     * A group of chunks with a stable position in the document's batch sequence
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Batch {
+        private final int sequence;
+        private final List<Document> chunks;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PipelineStats {
+        private final int pagesRead;
+        private final int chunksCreated;
+        private final int chunksStored;
+    }
+}
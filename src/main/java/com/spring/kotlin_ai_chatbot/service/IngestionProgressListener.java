@@ -0,0 +1,45 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.List;
+
+/**
+ * Receives progress of a bulk ingestion as it happens. Callbacks for different documents
+ * arrive from different worker threads, so implementations must be thread-safe.
+ */
+public interface IngestionProgressListener {
+
+    IngestionProgressListener NONE = new IngestionProgressListener() {
+    };
+
+    default void onDocumentsFound(List<String> sources) {
+    }
+
+    default void onDocumentStarted(String source) {
+    }
+
+    default void onPageCount(String source, int totalPages) {
+    }
+
+    /**
+     * Called after each page window with the number of the last page read so far
+     */
+    default void onPagesParsed(String source, int lastPageNumber) {
+    }
+
+    default void onChunksCreated(String source, int chunks) {
+    }
+
+    default void onBatchStored(String source, int chunksStored, int chunksEmbedded) {
+    }
+
+    default void onDocumentFinished(String source, PdfProcessingService.ProcessingResult result) {
+    }
+
+    /**
+     * Polled between documents and between batches; once true, the ingestion stops at the
+     * next check and the document in progress keeps its checkpoint
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -86,37 +86,55 @@ public class InitializationService implements CommandLineRunner {
      * Reload all documents - only available in non-production environments
      */
     public PdfProcessingService.BulkProcessingResult reloadAllDocuments() {
+        return reloadAllDocuments(IngestionProgressListener.NONE);
+    }
+
+    public PdfProcessingService.BulkProcessingResult reloadAllDocuments(IngestionProgressListener listener) {
+        ensureReloadAllowed();
+        
+        logger.info("🔄 Manually reloading all PDF documents...");
+        
+        PdfProcessingService.BulkProcessingResult result = pdfProcessingService.processAllPdfDocuments(listener);
+        logProcessingResults(result);
+        return result;
+    }
+
+    /**
+     * Throws IllegalStateException when the current environment does not allow reloading
+     */
+    public void ensureReloadAllowed() {
         if (isProductionProfile) {
             logger.warn("🚫 Document reloading is disabled in production environment");
             throw new IllegalStateException("Document reloading is disabled in production environment");
         }
         
-        logger.info("🔄 Manually reloading all PDF documents...");
-        
         if (!enableEmbeddingGeneration) {
             logger.warn("⚠️ Cannot reload documents - embedding generation is disabled");
             throw new IllegalStateException("Embedding generation is disabled. Enable it to reload documents.");
         }
-        
-        PdfProcessingService.BulkProcessingResult result = pdfProcessingService.processAllPdfDocuments();
-        logProcessingResults(result);
-        return result;
     }
 
     private void logProcessingResults(PdfProcessingService.BulkProcessingResult result) {
         logger.info("📊 === DOCUMENT PROCESSING RESULTS ===");
         logger.info("⏱️ Total Processing Time: {}ms", result.getTotalProcessingTimeMs());
+        logger.info("🐢 Slowest Document: {}ms", result.getLongestDocumentTimeMs());
         logger.info("✅ Successfully Processed: {} documents", result.getSuccessfulCount());
         logger.info("❌ Failed: {} documents", result.getFailedCount());
         logger.info("📄 Total Chunks Created: {}", result.getTotalChunks());
+        logger.info("🧮 Chunks Embedded: {} (unchanged documents skipped: {})", 
+                   result.getTotalChunksEmbedded(), result.getUnchangedCount());
+        logger.info("♻️ Near-duplicate Chunks Dropped: {} (~{} tokens not embedded)", 
+                   result.getTotalDuplicatesDropped(), result.getTotalDuplicateTokensSaved());
+        logger.info("✂️ Header/Footer Tokens Removed: {}", result.getTotalBoilerplateTokensRemoved());
         
         if (result.getSuccessfulCount() > 0) {
             logger.info("📋 === SUCCESSFUL DOCUMENTS ===");
             result.getSuccessfulDocuments().forEach((filename, processingResult) -> {
-                logger.info("✅ {} - {} pages, {} chunks, {}ms", 
+                logger.info("✅ {} - {} pages, {} chunks, {} header/footer tokens removed, {}ms", 
                            filename, 
                            processingResult.getDocumentsProcessed(),
                            processingResult.getChunksCreated(),
+                           processingResult.getBoilerplateTokensRemoved(),
                            processingResult.getProcessingTimeMs());
             });
         }
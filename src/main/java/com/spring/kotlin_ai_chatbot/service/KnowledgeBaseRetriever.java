@@ -0,0 +1,379 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.qdrant.client.PointIdFactory;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.WithPayloadSelectorFactory;
+import io.qdrant.client.WithVectorsSelectorFactory;
+import io.qdrant.client.grpc.JsonWithInt;
+import io.qdrant.client.grpc.Points.BatchResult;
+import io.qdrant.client.grpc.Points.PointId;
+import io.qdrant.client.grpc.Points.QuantizationSearchParams;
+import io.qdrant.client.grpc.Points.RetrievedPoint;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchParams;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import io.qdrant.client.grpc.Points.WithPayloadSelector;
+
+/**
+ * Similarity search against the knowledge base that asks Qdrant only for the payload
+ * fields the caller reads. QdrantVectorStore always returns the whole payload, which the
+ * question and quiz paths mostly throw away.
+ *
+ * With a local vector store configured, searches go to it instead in standalone mode or
+ * when it is set to serve reads, and fall back to it when Qdrant fails.
+ */
+@Service
+public class KnowledgeBaseRetriever {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseRetriever.class);
+    private static final long SEARCH_TIMEOUT_SECONDS = 30;
+
+    private final QdrantClient qdrantClient;
+    private final EmbeddingModel embeddingModel;
+    private final String collectionName;
+    private final SearchTuning defaultTuning;
+    private final ObjectProvider<ReplicaVectorStore> localVectorStore;
+    private final boolean standalone;
+    private final boolean serveLocalReads;
+
+    public KnowledgeBaseRetriever(QdrantClient qdrantClient,
+                                  EmbeddingModel embeddingModel,
+                                  ObjectProvider<ReplicaVectorStore> localVectorStore,
+                                  @Value("${app.vectorstore.local.mode:off}") String localMode,
+                                  @Value("${app.vectorstore.local.serve-reads:false}") boolean serveLocalReads,
+                                  @Value("${spring.ai.vectorstore.qdrant.collection-name}") String collectionName,
+                                  @Value("${app.qdrant.search.hnsw-ef:0}") int hnswEf,
+                                  @Value("${app.qdrant.search.exact:false}") boolean exact,
+                                  @Value("${app.qdrant.search.rescore:true}") boolean rescore,
+                                  @Value("${app.qdrant.search.oversampling:2.0}") double oversampling) {
+        this.qdrantClient = qdrantClient;
+        this.embeddingModel = embeddingModel;
+        this.collectionName = collectionName;
+        this.defaultTuning = new SearchTuning(hnswEf, exact, false, rescore, oversampling);
+        this.localVectorStore = localVectorStore;
+        this.standalone = "standalone".equalsIgnoreCase(localMode);
+        this.serveLocalReads = serveLocalReads;
+    }
+
+    public SearchTuning getDefaultTuning() {
+        return defaultTuning;
+    }
+
+    /**
+     * Runs the search with the configured tuning and returns documents whose metadata
+     * holds only the requested fields. The chunk text is always included.
+     */
+    public List<Document> search(SearchRequest request, List<String> metadataFields) {
+        return search(request, metadataFields, defaultTuning);
+    }
+
+    public List<Document> search(SearchRequest request, List<String> metadataFields, SearchTuning tuning) {
+        return searchChunks(request, metadataFields, tuning, false).stream().map(ScoredChunk::document).toList();
+    }
+
+    /**
+     * Like search, but also returns each hit's stored vector so callers can compare hits
+     * with each other without embedding them again, whether Qdrant or a local replica
+     * answered.
+     */
+    public List<ScoredChunk> searchWithVectors(SearchRequest request, List<String> metadataFields) {
+        return searchChunks(request, metadataFields, defaultTuning, true);
+    }
+
+    private List<ScoredChunk> searchChunks(SearchRequest request, List<String> metadataFields, SearchTuning tuning,
+                                           boolean withVectors) {
+        List<String> payloadFields = new ArrayList<>(metadataFields.size() + 1);
+        payloadFields.add(ChunkMetadata.CONTENT);
+        payloadFields.addAll(metadataFields);
+
+        float[] queryVector = embeddingModel.embed(request.getQuery());
+        ReplicaVectorStore local = localVectorStore.getIfAvailable();
+        if (local != null && (standalone || (serveLocalReads && local.isReady()))) {
+            return project(searchLocal(local, queryVector, request, withVectors), metadataFields);
+        }
+
+        try {
+            List<ScoredPoint> points = searchPoints(queryVector, request,
+                    WithPayloadSelectorFactory.include(payloadFields), tuning, withVectors);
+            return toChunks(points, withVectors);
+        } catch (IllegalStateException e) {
+            if (local != null && local.isReady()) {
+                logger.warn("Qdrant search failed, answering from the local replica: {}", e.getMessage());
+                return project(searchLocal(local, queryVector, request, withVectors), metadataFields);
+            }
+            logger.debug("Qdrant search failed for query: {}", request.getQuery(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs several searches for the same query in one round trip: the query is embedded
+     * once and Qdrant answers every request in a single batch call. Each request keeps
+     * its own top-k, threshold and filter, and its query text is ignored. Results come
+     * back in request order.
+     */
+    public List<List<ScoredChunk>> searchBatch(String query, List<SearchRequest> requests, List<String> metadataFields,
+                                               boolean withVectors) {
+        List<String> payloadFields = new ArrayList<>(metadataFields.size() + 1);
+        payloadFields.add(ChunkMetadata.CONTENT);
+        payloadFields.addAll(metadataFields);
+
+        float[] queryVector = embeddingModel.embed(query);
+        ReplicaVectorStore local = localVectorStore.getIfAvailable();
+        if (local != null && (standalone || (serveLocalReads && local.isReady()))) {
+            return searchLocalBatch(local, queryVector, requests, metadataFields, withVectors);
+        }
+
+        WithPayloadSelector payload = WithPayloadSelectorFactory.include(payloadFields);
+        List<SearchPoints> searches = requests.stream()
+                .map(request -> toSearchPoints(queryVector, request, payload, defaultTuning, withVectors))
+                .toList();
+        try {
+            List<BatchResult> results = searchBatchPoints(searches);
+            List<List<ScoredChunk>> batches = new ArrayList<>(results.size());
+            for (BatchResult result : results) {
+                batches.add(toChunks(result.getResultList(), withVectors));
+            }
+            return batches;
+        } catch (IllegalStateException e) {
+            if (local != null && local.isReady()) {
+                logger.warn("Qdrant search failed, answering from the local replica: {}", e.getMessage());
+                return searchLocalBatch(local, queryVector, requests, metadataFields, withVectors);
+            }
+            logger.debug("Qdrant batch search failed for query: {}", query, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads chunks by point id with only the requested metadata fields, for hits found
+     * without a vector search. Ids Qdrant does not know are skipped; order follows ids.
+     * Without Qdrant (standalone mode) nothing can be loaded and the list is empty.
+     */
+    public List<Document> fetch(List<String> ids, List<String> metadataFields) {
+        if (ids.isEmpty() || standalone) {
+            return List.of();
+        }
+        List<String> payloadFields = new ArrayList<>(metadataFields.size() + 1);
+        payloadFields.add(ChunkMetadata.CONTENT);
+        payloadFields.addAll(metadataFields);
+        List<PointId> pointIds = ids.stream().map(id -> PointIdFactory.id(UUID.fromString(id))).toList();
+
+        List<RetrievedPoint> points;
+        try {
+            points = qdrantClient.retrieveAsync(collectionName, pointIds,
+                    WithPayloadSelectorFactory.include(payloadFields), WithVectorsSelectorFactory.enable(false), null)
+                    .get(SEARCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading points of " + collectionName, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read points of " + collectionName + ": " + e.getMessage(), e);
+        }
+
+        Map<String, Document> byId = new HashMap<>();
+        for (RetrievedPoint point : points) {
+            byId.put(point.getId().getUuid(), toDocument(point.getId(), point.getPayloadMap(), null));
+        }
+        List<Document> documents = new ArrayList<>(byId.size());
+        for (String id : ids) {
+            Document document = byId.get(id);
+            if (document != null) {
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    private static List<ScoredChunk> toChunks(List<ScoredPoint> points, boolean withVectors) {
+        List<ScoredChunk> chunks = new ArrayList<>(points.size());
+        for (ScoredPoint point : points) {
+            chunks.add(new ScoredChunk(toDocument(point.getId(), point.getPayloadMap(), (double) point.getScore()),
+                    withVectors ? toArray(point.getVectors().getVector().getDataList()) : null));
+        }
+        return chunks;
+    }
+
+    private static List<List<ScoredChunk>> searchLocalBatch(ReplicaVectorStore local, float[] queryVector,
+                                                            List<SearchRequest> requests, List<String> metadataFields,
+                                                            boolean withVectors) {
+        List<List<ScoredChunk>> batches = new ArrayList<>(requests.size());
+        for (SearchRequest request : requests) {
+            batches.add(project(searchLocal(local, queryVector, request, withVectors), metadataFields));
+        }
+        return batches;
+    }
+
+    private static List<ScoredChunk> searchLocal(ReplicaVectorStore local, float[] queryVector, SearchRequest request,
+                                                 boolean withVectors) {
+        if (withVectors) {
+            return local.searchWithVectors(queryVector, request);
+        }
+        return local.search(queryVector, request).stream().map(document -> new ScoredChunk(document, null)).toList();
+    }
+
+    /**
+     * Trims local results to the same fields a Qdrant search would have returned
+     */
+    private static List<ScoredChunk> project(List<ScoredChunk> chunks, List<String> metadataFields) {
+        List<ScoredChunk> projected = new ArrayList<>(chunks.size());
+        for (ScoredChunk chunk : chunks) {
+            Document document = chunk.document();
+            Map<String, Object> metadata = new HashMap<>();
+            for (String field : metadataFields) {
+                Object value = document.getMetadata().get(field);
+                if (value != null) {
+                    metadata.put(field, value);
+                }
+            }
+            projected.add(new ScoredChunk(document.mutate().metadata(metadata).build(), chunk.vector()));
+        }
+        return projected;
+    }
+
+    /**
+     * Searches with an already embedded query. The request supplies top-k, threshold and
+     * filter; its query text is ignored.
+     */
+    List<ScoredPoint> searchPoints(float[] vector, SearchRequest request, WithPayloadSelector payload,
+                                   SearchTuning tuning) {
+        return searchPoints(vector, request, payload, tuning, false);
+    }
+
+    private List<ScoredPoint> searchPoints(float[] vector, SearchRequest request, WithPayloadSelector payload,
+                                           SearchTuning tuning, boolean withVectors) {
+        SearchPoints search = toSearchPoints(vector, request, payload, tuning, withVectors);
+        try {
+            return qdrantClient.searchAsync(search).get(SEARCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching " + collectionName, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to search " + collectionName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<BatchResult> searchBatchPoints(List<SearchPoints> searches) {
+        try {
+            return qdrantClient.searchBatchAsync(collectionName, searches, null)
+                    .get(SEARCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching " + collectionName, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to search " + collectionName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private SearchPoints toSearchPoints(float[] vector, SearchRequest request, WithPayloadSelector payload,
+                                        SearchTuning tuning, boolean withVectors) {
+        SearchPoints.Builder search = SearchPoints.newBuilder()
+                .setCollectionName(collectionName)
+                .addAllVector(toList(vector))
+                .setLimit(request.getTopK())
+                .setScoreThreshold((float) request.getSimilarityThreshold())
+                .setWithPayload(payload)
+                .setWithVectors(WithVectorsSelectorFactory.enable(withVectors))
+                .setParams(tuning.toParams());
+        if (request.getFilterExpression() != null) {
+            search.setFilter(QdrantFilterConverter.convert(request.getFilterExpression()));
+        }
+        return search.build();
+    }
+
+    private static Document toDocument(PointId id, Map<String, JsonWithInt.Value> payload, Double score) {
+        Map<String, Object> metadata = new HashMap<>();
+        String text = "";
+        for (Map.Entry<String, JsonWithInt.Value> field : payload.entrySet()) {
+            if (ChunkMetadata.CONTENT.equals(field.getKey())) {
+                text = field.getValue().getStringValue();
+                continue;
+            }
+            Object value = toObject(field.getValue());
+            if (value != null) {
+                metadata.put(field.getKey(), value);
+            }
+        }
+        return Document.builder()
+                .id(id.getUuid())
+                .text(text)
+                .metadata(metadata)
+                .score(score)
+                .build();
+    }
+
+    static Object toObject(JsonWithInt.Value value) {
+        return switch (value.getKindCase()) {
+            case STRING_VALUE -> value.getStringValue();
+            case INTEGER_VALUE -> value.getIntegerValue();
+            case DOUBLE_VALUE -> value.getDoubleValue();
+            case BOOL_VALUE -> value.getBoolValue();
+            default -> null;
+        };
+    }
+
+    private static float[] toArray(List<Float> values) {
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = values.get(i);
+        }
+        return vector;
+    }
+
+    private static List<Float> toList(float[] vector) {
+        List<Float> values = new ArrayList<>(vector.length);
+        for (float component : vector) {
+            values.add(component);
+        }
+        return values;
+    }
+
+    /**
+     * A search hit with its stored vector, or a null vector when none was loaded
+     */
+    public record ScoredChunk(Document document, float[] vector) {
+    }
+
+    /**
+     * Per-request search parameters. An hnswEf of 0 uses the collection default; exact
+     * bypasses the HNSW index. The quantization settings only matter for collections
+     * with quantization: ignoreQuantization searches the original vectors, rescore
+     * re-ranks oversampling * limit quantized candidates against them.
+     */
+    public record SearchTuning(int hnswEf, boolean exact, boolean ignoreQuantization,
+                               boolean rescore, double oversampling) {
+
+        public SearchTuning withHnswEf(int ef) {
+            return new SearchTuning(ef, exact, ignoreQuantization, rescore, oversampling);
+        }
+
+        SearchParams toParams() {
+            SearchParams.Builder params = SearchParams.newBuilder()
+                    .setExact(exact)
+                    .setQuantization(QuantizationSearchParams.newBuilder()
+                            .setIgnore(ignoreQuantization)
+                            .setRescore(rescore)
+                            .setOversampling(Math.max(1.0, oversampling)));
+            if (hnswEf > 0) {
+                params.setHnswEf(hnswEf);
+            }
+            return params.build();
+        }
+    }
+}
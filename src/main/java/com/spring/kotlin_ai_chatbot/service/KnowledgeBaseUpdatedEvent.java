@@ -0,0 +1,9 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+/**
+ * Published after a document was ingested again, successfully or not, so its chunks in
+ * the vector store may have changed. Caches of answers built from those chunks listen
+ * for it.
+ */
+public record KnowledgeBaseUpdatedEvent(String source) {
+}
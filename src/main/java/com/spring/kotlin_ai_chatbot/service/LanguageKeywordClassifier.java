@@ -0,0 +1,216 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Scores text against the keyword sets of every supported language in a single pass.
+ * All keywords are compiled into one case-insensitive Aho-Corasick automaton whose
+ * transitions are fully resolved up front, so scanning is one table lookup per character.
+ * A keyword only counts when it stands as a whole word, and hits of one language never
+ * overlap: as with the \b(...)\b alternation each language used to be matched with,
+ * the leftmost, then longest, keyword wins, so "data class" is one kotlin hit rather
+ * than two. Instances are immutable and safe to share between threads.
+ */
+public class LanguageKeywordClassifier {
+
+    private static final int ASCII_LIMIT = 128;
+
+    private final String[] languages;
+    private final int[] charClasses;
+    private final int alphabetSize;
+    private final int[][] transitions;
+    private final int[][] outputLengths;
+    private final int[][] outputMasks;
+
+    public LanguageKeywordClassifier(Map<String, List<String>> keywordsByLanguage) {
+        if (keywordsByLanguage.size() > Integer.SIZE) {
+            throw new IllegalArgumentException("At most " + Integer.SIZE + " languages are supported");
+        }
+        this.languages = keywordsByLanguage.keySet().toArray(new String[0]);
+
+        Map<String, Integer> keywordMasks = new LinkedHashMap<>();
+        for (int language = 0; language < languages.length; language++) {
+            for (String keyword : keywordsByLanguage.get(languages[language])) {
+                keywordMasks.merge(keyword.toLowerCase(), 1 << language, (a, b) -> a | b);
+            }
+        }
+
+        this.charClasses = new int[ASCII_LIMIT];
+        int nextClass = 1;
+        for (String keyword : keywordMasks.keySet()) {
+            for (char c : keyword.toCharArray()) {
+                if (c >= ASCII_LIMIT) {
+                    throw new IllegalArgumentException("Keywords must be ASCII: " + keyword);
+                }
+                if (charClasses[c] == 0) {
+                    charClasses[c] = nextClass++;
+                }
+            }
+        }
+        this.alphabetSize = nextClass;
+
+        // Trie construction; class 0 stands for every character that appears in no keyword
+        List<int[]> trie = new ArrayList<>();
+        List<int[]> lengths = new ArrayList<>();
+        List<int[]> masks = new ArrayList<>();
+        trie.add(newRow());
+        lengths.add(new int[0]);
+        masks.add(new int[0]);
+
+        for (Map.Entry<String, Integer> entry : keywordMasks.entrySet()) {
+            int state = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                int charClass = charClasses[c];
+                if (trie.get(state)[charClass] < 0) {
+                    trie.get(state)[charClass] = trie.size();
+                    trie.add(newRow());
+                    lengths.add(new int[0]);
+                    masks.add(new int[0]);
+                }
+                state = trie.get(state)[charClass];
+            }
+            lengths.set(state, append(lengths.get(state), entry.getKey().length()));
+            masks.set(state, append(masks.get(state), entry.getValue()));
+        }
+
+        // Breadth-first failure links, folding each state's fallback outputs and transitions into it
+        int[] failure = new int[trie.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        int[] root = trie.get(0);
+        for (int charClass = 0; charClass < alphabetSize; charClass++) {
+            if (root[charClass] < 0) {
+                root[charClass] = 0;
+            } else {
+                failure[root[charClass]] = 0;
+                queue.add(root[charClass]);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = trie.get(state);
+            int fallback = failure[state];
+            lengths.set(state, concat(lengths.get(state), lengths.get(fallback)));
+            masks.set(state, concat(masks.get(state), masks.get(fallback)));
+
+            for (int charClass = 0; charClass < alphabetSize; charClass++) {
+                int next = row[charClass];
+                if (next < 0) {
+                    row[charClass] = trie.get(fallback)[charClass];
+                } else {
+                    failure[next] = trie.get(fallback)[charClass];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = trie.toArray(new int[0][]);
+        this.outputLengths = lengths.toArray(new int[0][]);
+        this.outputMasks = masks.toArray(new int[0][]);
+    }
+
+    /**
+     * Returns the language with the most whole-word keyword hits, or the fallback if
+     * nothing matched. Ties go to the language that comes first in the keyword map.
+     */
+    public String classify(CharSequence text, String fallback) {
+        if (text == null || text.isEmpty()) {
+            return fallback;
+        }
+
+        int[] scores = score(text);
+        int best = -1;
+        for (int language = 0; language < scores.length; language++) {
+            if (scores[language] > 0 && (best < 0 || scores[language] > scores[best])) {
+                best = language;
+            }
+        }
+        return best < 0 ? fallback : languages[best];
+    }
+
+    /**
+     * Counts whole-word keyword hits per language, indexed like {@link #getLanguages()}.
+     * Outputs arrive ordered by end position, longest first at each end, so a hit that
+     * overlaps the language's previous one either replaces it, when it starts no later,
+     * or is dropped.
+     */
+    public int[] score(CharSequence text) {
+        int[] scores = new int[languages.length];
+        int[] lastStarts = new int[languages.length];
+        int[] lastEnds = new int[languages.length];
+        Arrays.fill(lastStarts, -1);
+        int length = text.length();
+        int state = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            state = transitions[state][c < ASCII_LIMIT ? charClasses[c] : 0];
+
+            int[] matchLengths = outputLengths[state];
+            if (matchLengths.length == 0) {
+                continue;
+            }
+
+            boolean endsAtBoundary = isBoundary(text, i + 1);
+            for (int m = 0; m < matchLengths.length; m++) {
+                int start = i - matchLengths[m] + 1;
+                if (endsAtBoundary && isBoundary(text, start)) {
+                    int mask = outputMasks[state][m];
+                    while (mask != 0) {
+                        int language = Integer.numberOfTrailingZeros(mask);
+                        mask &= mask - 1;
+                        if (start >= lastEnds[language]) {
+                            scores[language]++;
+                        } else if (start > lastStarts[language]) {
+                            continue;
+                        }
+                        lastStarts[language] = start;
+                        lastEnds[language] = i + 1;
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    public List<String> getLanguages() {
+        return List.of(languages);
+    }
+
+    private static boolean isBoundary(CharSequence text, int position) {
+        boolean before = position > 0 && isWordChar(text.charAt(position - 1));
+        boolean after = position < text.length() && isWordChar(text.charAt(position));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,410 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BM25 inverted index over chunk texts. Terms keep programming identifiers intact:
+ * qualified names such as std::move or Result.ok are indexed whole and as their parts,
+ * and underscores and digits stay inside words. Postings are primitive arrays of
+ * ascending document numbers and term frequencies; on disk the document numbers are
+ * delta encoded as variable-length ints, so most postings take two bytes.
+ *
+ * Removed documents are masked and dropped from the postings by compact(). Not thread
+ * safe; LexicalSearchService guards it with a lock.
+ */
+public class LexicalIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "[a-z_][a-z0-9_]*(?:(?:::|\\.|->)[a-z_][a-z0-9_]*)*|[0-9]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for", "from", "how",
+            "i", "if", "in", "into", "is", "it", "its", "me", "my", "of", "on", "or", "so", "that", "the",
+            "their", "then", "there", "these", "this", "to", "was", "we", "what", "when", "where", "which",
+            "why", "will", "with", "you", "your");
+
+    private final float k1;
+    private final float b;
+
+    private final List<String> pointIds = new ArrayList<>();
+    private final List<String> sources = new ArrayList<>();
+    private final List<String> languages = new ArrayList<>();
+    private int[] lengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private final Map<String, Integer> docByPointId = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+
+    public LexicalIndex(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Splits text into index terms, lower-cased, without stop words
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String token = matcher.group();
+            if (token.length() < 2 && !Character.isDigit(token.charAt(0))) {
+                continue;
+            }
+            if (!STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+            if (token.contains("::") || token.contains(".") || token.contains("->")) {
+                for (String part : token.split("::|\\.|->")) {
+                    if (part.length() > 1 && !STOP_WORDS.contains(part)) {
+                        terms.add(part);
+                    }
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Indexes a chunk, replacing an earlier version with the same point id
+     */
+    public void add(String pointId, String text, String source, String language) {
+        remove(pointId);
+        int doc = pointIds.size();
+        List<String> terms = tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings(4)).add(doc, entry.getValue());
+        }
+
+        pointIds.add(pointId);
+        sources.add(source);
+        languages.add(language);
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, lengths.length * 2);
+        }
+        lengths[doc] = terms.size();
+        totalLength += terms.size();
+        docByPointId.put(pointId, doc);
+    }
+
+    public void remove(String pointId) {
+        Integer doc = docByPointId.remove(pointId);
+        if (doc != null) {
+            deleted.set(doc);
+            totalLength -= lengths[doc];
+        }
+    }
+
+    /**
+     * Removes every chunk of a source document; returns how many were removed
+     */
+    public int removeSource(String source) {
+        int removed = 0;
+        for (int doc = 0; doc < pointIds.size(); doc++) {
+            if (!deleted.get(doc) && source.equals(sources.get(doc))) {
+                remove(pointIds.get(doc));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return docByPointId.size();
+    }
+
+    public int deletedCount() {
+        return deleted.cardinality();
+    }
+
+    /**
+     * Whether every term of the query occurs somewhere in the index
+     */
+    public boolean containsAll(List<String> terms) {
+        for (String term : terms) {
+            Postings termPostings = postings.get(term);
+            if (termPostings == null || termPostings.size == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * BM25 inverse document frequency of a term, 0 for a term the index does not contain
+     */
+    public float idf(String term) {
+        Postings termPostings = postings.get(term);
+        int documents = size();
+        if (termPostings == null || termPostings.size == 0 || documents == 0) {
+            return 0f;
+        }
+        int df = Math.min(termPostings.size, documents);
+        return (float) Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+    }
+
+    /**
+     * Scores documents term at a time and returns the best k, optionally only those whose
+     * language is in the allowed set
+     */
+    public List<Hit> search(List<String> queryTerms, int k, Set<String> allowedLanguages) {
+        int documents = size();
+        if (documents == 0 || queryTerms.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        float averageLength = (float) totalLength / documents;
+        float[] scores = new float[pointIds.size()];
+        BitSet touched = new BitSet(pointIds.size());
+
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            Postings termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            // Masked documents still sit in the postings until compaction; the slight
+            // overcount of df only flattens idf a little
+            int df = Math.min(termPostings.size, documents);
+            float idf = (float) Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+            for (int i = 0; i < termPostings.size; i++) {
+                int doc = termPostings.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                float tf = termPostings.frequencies[i];
+                float norm = k1 * (1 - b + b * lengths[doc] / averageLength);
+                scores[doc] += idf * tf * (k1 + 1) / (tf + norm);
+                touched.set(doc);
+            }
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Hit::score));
+        for (int doc = touched.nextSetBit(0); doc >= 0; doc = touched.nextSetBit(doc + 1)) {
+            if (allowedLanguages != null && !allowedLanguages.contains(languages.get(doc))) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Hit(pointIds.get(doc), scores[doc]));
+            } else if (scores[doc] > best.peek().score()) {
+                best.poll();
+                best.add(new Hit(pointIds.get(doc), scores[doc]));
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    /**
+     * Renumbers the live documents densely and drops masked ones from every posting list
+     */
+    public void compact() {
+        if (deleted.isEmpty()) {
+            return;
+        }
+        int[] renumbered = new int[pointIds.size()];
+        List<String> livePointIds = new ArrayList<>(size());
+        List<String> liveSources = new ArrayList<>(size());
+        List<String> liveLanguages = new ArrayList<>(size());
+        int[] liveLengths = new int[Math.max(1024, size())];
+        for (int doc = 0; doc < pointIds.size(); doc++) {
+            if (deleted.get(doc)) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            int live = livePointIds.size();
+            renumbered[doc] = live;
+            livePointIds.add(pointIds.get(doc));
+            liveSources.add(sources.get(doc));
+            liveLanguages.add(languages.get(doc));
+            liveLengths[live] = lengths[doc];
+        }
+
+        postings.values().removeIf(termPostings -> {
+            termPostings.renumber(renumbered);
+            return termPostings.size == 0;
+        });
+        replaceDocuments(livePointIds, liveSources, liveLanguages, liveLengths);
+    }
+
+    /**
+     * Writes the live documents and their postings. Sources and languages repeat across
+     * many chunks, so each is written once in a string table and referenced by number.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        compact();
+        out.writeInt(FORMAT_VERSION);
+
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringNumbers = new HashMap<>();
+        for (int doc = 0; doc < pointIds.size(); doc++) {
+            stringNumbers.computeIfAbsent(sources.get(doc), s -> { strings.add(s); return strings.size() - 1; });
+            stringNumbers.computeIfAbsent(languages.get(doc), s -> { strings.add(s); return strings.size() - 1; });
+        }
+        writeVarInt(out, strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+
+        writeVarInt(out, pointIds.size());
+        for (int doc = 0; doc < pointIds.size(); doc++) {
+            out.writeUTF(pointIds.get(doc));
+            writeVarInt(out, stringNumbers.get(sources.get(doc)));
+            writeVarInt(out, stringNumbers.get(languages.get(doc)));
+            writeVarInt(out, lengths[doc]);
+        }
+
+        writeVarInt(out, postings.size());
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            Postings termPostings = entry.getValue();
+            out.writeUTF(entry.getKey());
+            writeVarInt(out, termPostings.size);
+            int previous = 0;
+            for (int i = 0; i < termPostings.size; i++) {
+                writeVarInt(out, termPostings.docs[i] - previous);
+                writeVarInt(out, termPostings.frequencies[i]);
+                previous = termPostings.docs[i];
+            }
+        }
+    }
+
+    public static LexicalIndex readFrom(DataInput in, float k1, float b) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("unsupported lexical index format");
+        }
+        LexicalIndex index = new LexicalIndex(k1, b);
+
+        String[] strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        int documents = readVarInt(in);
+        List<String> pointIds = new ArrayList<>(documents);
+        List<String> sources = new ArrayList<>(documents);
+        List<String> languages = new ArrayList<>(documents);
+        int[] lengths = new int[Math.max(1024, documents)];
+        for (int doc = 0; doc < documents; doc++) {
+            pointIds.add(in.readUTF());
+            sources.add(strings[readVarInt(in)]);
+            languages.add(strings[readVarInt(in)]);
+            lengths[doc] = readVarInt(in);
+        }
+        index.replaceDocuments(pointIds, sources, languages, lengths);
+
+        int terms = readVarInt(in);
+        for (int t = 0; t < terms; t++) {
+            String term = in.readUTF();
+            int size = readVarInt(in);
+            Postings termPostings = new Postings(size);
+            int doc = 0;
+            for (int i = 0; i < size; i++) {
+                doc += readVarInt(in);
+                termPostings.add(doc, readVarInt(in));
+            }
+            index.postings.put(term, termPostings);
+        }
+        return index;
+    }
+
+    private void replaceDocuments(List<String> newPointIds, List<String> newSources, List<String> newLanguages,
+                                  int[] newLengths) {
+        pointIds.clear();
+        pointIds.addAll(newPointIds);
+        sources.clear();
+        sources.addAll(newSources);
+        languages.clear();
+        languages.addAll(newLanguages);
+        lengths = newLengths;
+        deleted.clear();
+        docByPointId.clear();
+        totalLength = 0;
+        for (int doc = 0; doc < pointIds.size(); doc++) {
+            docByPointId.put(pointIds.get(doc), doc);
+            totalLength += lengths[doc];
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte next = in.readByte();
+            value |= (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed variable-length int");
+    }
+
+    /**
+     * A chunk matched by a lexical search, identified by its Qdrant point id
+     */
+    public record Hit(String pointId, float score) {
+    }
+
+    /**
+     * Document numbers are appended in increasing order, so the arrays stay sorted
+     */
+    private static class Postings {
+        private int[] docs;
+        private int[] frequencies;
+        private int size;
+
+        Postings(int capacity) {
+            this.docs = new int[Math.max(1, capacity)];
+            this.frequencies = new int[Math.max(1, capacity)];
+        }
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
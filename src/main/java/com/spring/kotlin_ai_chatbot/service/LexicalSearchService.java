@@ -0,0 +1,369 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.WithPayloadSelectorFactory;
+import io.qdrant.client.grpc.JsonWithInt;
+import io.qdrant.client.grpc.Points.PointId;
+import io.qdrant.client.grpc.Points.RetrievedPoint;
+import io.qdrant.client.grpc.Points.ScrollPoints;
+import io.qdrant.client.grpc.Points.ScrollResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keyword search over the knowledge base with a BM25 LexicalIndex kept next to the
+ * vector store. Ingestion adds and removes chunks as it writes them to Qdrant, and the
+ * index is saved to a local file after every document. A node whose index is missing
+ * or out of step with the collection, checked at startup and on a schedule, rebuilds it
+ * from the chunk texts in Qdrant, which costs no embedding calls.
+ */
+@Service
+public class LexicalSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LexicalSearchService.class);
+    private static final int SCROLL_PAGE_SIZE = 512;
+    private static final Pattern IDENTIFIER = Pattern.compile(
+            "\\w(?:::|->|\\.)\\w|[A-Za-z0-9]_[A-Za-z0-9]|[a-z][A-Z]");
+
+    private final QdrantClient qdrantClient;
+    private final String collectionName;
+    private final boolean enabled;
+    private final boolean standalone;
+    private final Path file;
+    private final float k1;
+    private final float b;
+    private final int keywordQueryMaxTerms;
+    private final float keywordQueryMinIdf;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LexicalIndex index;
+    private volatile boolean dirty;
+    private long modifications;
+
+    public LexicalSearchService(QdrantClient qdrantClient,
+                                @Value("${spring.ai.vectorstore.qdrant.collection-name}") String collectionName,
+                                @Value("${app.lexical.enabled:true}") boolean enabled,
+                                @Value("${app.vectorstore.local.mode:off}") String localMode,
+                                @Value("${app.lexical.file:${java.io.tmpdir}/kotlin-ai-chatbot/lexical-index.bin}") String file,
+                                @Value("${app.lexical.bm25-k1:1.2}") float k1,
+                                @Value("${app.lexical.bm25-b:0.75}") float b,
+                                @Value("${app.lexical.keyword-query-max-terms:3}") int keywordQueryMaxTerms,
+                                @Value("${app.lexical.keyword-query-min-idf:3.0}") float keywordQueryMinIdf) {
+        this.qdrantClient = qdrantClient;
+        this.collectionName = collectionName;
+        this.enabled = enabled;
+        this.standalone = "standalone".equalsIgnoreCase(localMode);
+        this.file = Path.of(file);
+        this.k1 = k1;
+        this.b = b;
+        this.keywordQueryMaxTerms = keywordQueryMaxTerms;
+        this.keywordQueryMinIdf = keywordQueryMinIdf;
+        this.index = new LexicalIndex(k1, b);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indexes stored chunks; a chunk indexed before under the same id is replaced
+     */
+    public void add(List<Document> chunks) {
+        if (!enabled || chunks.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Document chunk : chunks) {
+                Map<String, Object> metadata = chunk.getMetadata();
+                index.add(chunk.getId(), chunk.getText(),
+                        String.valueOf(metadata.getOrDefault(ChunkMetadata.SOURCE, "")),
+                        String.valueOf(metadata.getOrDefault(ChunkMetadata.LANGUAGE, "general")));
+            }
+            modifications++;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(List<String> pointIds) {
+        if (!enabled || pointIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            pointIds.forEach(index::remove);
+            compactIfNeeded();
+            modifications++;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSource(String source) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index.removeSource(source) > 0) {
+                compactIfNeeded();
+                modifications++;
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best-scoring chunks for the query, optionally restricted to languages
+     */
+    public List<LexicalIndex.Hit> search(String query, int topK, Set<String> languages) {
+        if (!enabled) {
+            return List.of();
+        }
+        List<String> terms = LexicalIndex.tokenize(query);
+        lock.readLock().lock();
+        try {
+            return index.search(terms, topK, languages);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A short query made only of terms the index knows is answered by lexical search alone
+     * without embedding it, but only when it names an identifier such as "std::move",
+     * "Vec.push" or "isInitialized", or when every term is rare enough in the index to
+     * pin down the passage. Anything else, like "sealed classes", still goes through
+     * vector search.
+     */
+    public boolean isKeywordQuery(String query) {
+        if (!enabled || query.isBlank() || query.trim().split("\\s+").length > keywordQueryMaxTerms) {
+            return false;
+        }
+        List<String> terms = LexicalIndex.tokenize(query);
+        boolean identifier = IDENTIFIER.matcher(query).find();
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || !index.containsAll(terms)) {
+                return false;
+            }
+            return identifier || terms.stream().allMatch(term -> index.idf(term) >= keywordQueryMinIdf);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            LexicalIndex loaded = LexicalIndex.readFrom(in, k1, b);
+            lock.writeLock().lock();
+            try {
+                index = loaded;
+                dirty = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("📂 Loaded lexical index with {} chunks from {}", loaded.size(), file);
+        } catch (IOException e) {
+            logger.warn("Could not load lexical index from {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the index if it changed, next to the target first so a crash never leaves a
+     * torn file. Saving compacts the index, hence the write lock.
+     */
+    public synchronized void save() {
+        if (!enabled || !dirty) {
+            return;
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                index.writeTo(out);
+            }
+            dirty = false;
+        } catch (IOException e) {
+            logger.warn("Could not save lexical index to {}: {}", file, e.getMessage());
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Could not save lexical index to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        save();
+    }
+
+    /**
+     * Chunks ingested before the lexical index existed, or on another node, are only in
+     * Qdrant; a stale index is rebuilt from there in the background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled || standalone) {
+            return;
+        }
+        Thread thread = new Thread(this::refreshIfStale, "lexical-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuilds the index when its chunk count differs from the collection's point count,
+     * which catches documents ingested or removed by other nodes. An index with unsaved
+     * changes is being written by ingestion on this node and is left alone until the
+     * next check. Returns the rebuilt size, or -1 when nothing was rebuilt.
+     */
+    public int refreshIfStale() {
+        if (!enabled || standalone || dirty) {
+            return -1;
+        }
+        long points;
+        try {
+            points = qdrantClient.countAsync(collectionName).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            logger.warn("Could not count points in {}: {}", collectionName, e.getMessage());
+            return -1;
+        }
+        int indexed = size();
+        if (points == indexed) {
+            return -1;
+        }
+        logger.info("🔤 Lexical index has {} chunks but {} has {} points, rebuilding",
+                   indexed, collectionName, points);
+        return rebuild();
+    }
+
+    /**
+     * Replaces the index with one built from every chunk text in the collection. The
+     * scroll runs without the lock, so if ingestion on this node changed the index in the
+     * meantime the rebuilt copy may miss those changes; it is then thrown away and the next
+     * check tries again. Returns the rebuilt size, or -1 when nothing was replaced.
+     */
+    public synchronized int rebuild() {
+        long startTime = System.currentTimeMillis();
+        long modificationsAtStart;
+        lock.readLock().lock();
+        try {
+            modificationsAtStart = modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+        LexicalIndex rebuilt = new LexicalIndex(k1, b);
+        try {
+            ScrollPoints.Builder scroll = ScrollPoints.newBuilder()
+                    .setCollectionName(collectionName)
+                    .setLimit(SCROLL_PAGE_SIZE)
+                    .setWithPayload(WithPayloadSelectorFactory.include(
+                            List.of(ChunkMetadata.CONTENT, ChunkMetadata.SOURCE, ChunkMetadata.LANGUAGE)));
+            PointId offset = null;
+            do {
+                if (offset != null) {
+                    scroll.setOffset(offset);
+                }
+                ScrollResponse page = qdrantClient.scrollAsync(scroll.build()).get(60, TimeUnit.SECONDS);
+                for (RetrievedPoint point : page.getResultList()) {
+                    Map<String, JsonWithInt.Value> payload = point.getPayloadMap();
+                    rebuilt.add(point.getId().getUuid(),
+                            stringField(payload, ChunkMetadata.CONTENT, ""),
+                            stringField(payload, ChunkMetadata.SOURCE, ""),
+                            stringField(payload, ChunkMetadata.LANGUAGE, "general"));
+                }
+                offset = page.hasNextPageOffset() ? page.getNextPageOffset() : null;
+            } while (offset != null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            logger.warn("Could not rebuild lexical index from {}: {}", collectionName, e.getMessage());
+            return -1;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (modifications != modificationsAtStart) {
+                logger.info("Lexical index changed during the rebuild from {}, keeping it until the next check",
+                           collectionName);
+                return -1;
+            }
+            index = rebuilt;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        save();
+        logger.info("🔤 Rebuilt lexical index with {} chunks from {} in {}ms",
+                   rebuilt.size(), collectionName, System.currentTimeMillis() - startTime);
+        return rebuilt.size();
+    }
+
+    /**
+     * Masked documents slow every search that touches their terms; they are dropped once
+     * they make up a quarter of the index. Caller holds the write lock.
+     */
+    private void compactIfNeeded() {
+        if (index.deletedCount() > 0 && index.deletedCount() * 4 >= index.size()) {
+            index.compact();
+        }
+    }
+
+    private static String stringField(Map<String, JsonWithInt.Value> payload, String key, String fallback) {
+        JsonWithInt.Value value = payload.get(key);
+        return value != null && value.getKindCase() == JsonWithInt.Value.KindCase.STRING_VALUE
+                ? value.getStringValue() : fallback;
+    }
+}
@@ -0,0 +1,130 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.WithPayloadSelectorFactory;
+import io.qdrant.client.WithVectorsSelectorFactory;
+import io.qdrant.client.grpc.JsonWithInt;
+import io.qdrant.client.grpc.Points.PointId;
+import io.qdrant.client.grpc.Points.RetrievedPoint;
+import io.qdrant.client.grpc.Points.ScrollPoints;
+import io.qdrant.client.grpc.Points.ScrollResponse;
+
+/**
+ * Keeps the local replica a copy of the Qdrant collection. A sync scrolls every point
+ * with its stored vector, so nothing is re-embedded, and swaps the new contents in at once.
+ */
+@Service
+@ConditionalOnExpression("'${app.vectorstore.local.mode:off}' == 'replica' or '${app.vectorstore.local.mode:off}' == 'mapped'")
+public class LocalReplicaSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalReplicaSyncService.class);
+    private static final int SCROLL_PAGE_SIZE = 512;
+
+    private final ReplicaVectorStore localVectorStore;
+    private final QdrantClient qdrantClient;
+    private final String collectionName;
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    public LocalReplicaSyncService(ReplicaVectorStore localVectorStore,
+                                   QdrantClient qdrantClient,
+                                   @Value("${spring.ai.vectorstore.qdrant.collection-name}") String collectionName) {
+        this.localVectorStore = localVectorStore;
+        this.qdrantClient = qdrantClient;
+        this.collectionName = collectionName;
+    }
+
+    /**
+     * A node without a replica file copies the collection right after startup instead of
+     * waiting for the first scheduled sync
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncOnStartup() {
+        if (localVectorStore.isReady()) {
+            return;
+        }
+        Thread thread = new Thread(this::sync, "local-replica-sync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Copies the whole collection into the local store; returns the number of points, or
+     * -1 when a sync was already running or failed
+     */
+    public int sync() {
+        if (!syncing.compareAndSet(false, true)) {
+            return -1;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            List<ReplicaVectorStore.StoredPoint> points = new ArrayList<>();
+            ScrollPoints.Builder scroll = ScrollPoints.newBuilder()
+                    .setCollectionName(collectionName)
+                    .setLimit(SCROLL_PAGE_SIZE)
+                    .setWithPayload(WithPayloadSelectorFactory.enable(true))
+                    .setWithVectors(WithVectorsSelectorFactory.enable(true));
+            PointId offset = null;
+            do {
+                if (offset != null) {
+                    scroll.setOffset(offset);
+                }
+                ScrollResponse page = qdrantClient.scrollAsync(scroll.build()).get(60, TimeUnit.SECONDS);
+                for (RetrievedPoint point : page.getResultList()) {
+                    points.add(toStoredPoint(point));
+                }
+                offset = page.hasNextPageOffset() ? page.getNextPageOffset() : null;
+            } while (offset != null);
+
+            localVectorStore.replaceAll(points);
+            localVectorStore.save();
+            logger.info("🔁 Synced local replica with {} points from {} in {}ms",
+                       points.size(), collectionName, System.currentTimeMillis() - startTime);
+            return points.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            logger.warn("Could not sync local replica from {}: {}", collectionName, e.getMessage());
+            return -1;
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    private static ReplicaVectorStore.StoredPoint toStoredPoint(RetrievedPoint point) {
+        String text = "";
+        Map<String, Object> metadata = new HashMap<>();
+        for (Map.Entry<String, JsonWithInt.Value> field : point.getPayloadMap().entrySet()) {
+            if (ChunkMetadata.CONTENT.equals(field.getKey())) {
+                text = field.getValue().getStringValue();
+                continue;
+            }
+            Object value = KnowledgeBaseRetriever.toObject(field.getValue());
+            if (value != null) {
+                metadata.put(field.getKey(), value);
+            }
+        }
+
+        List<Float> data = point.getVectors().getVector().getDataList();
+        float[] vector = new float[data.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = data.get(i);
+        }
+        return new ReplicaVectorStore.StoredPoint(point.getId().getUuid(), text, metadata, vector);
+    }
+}
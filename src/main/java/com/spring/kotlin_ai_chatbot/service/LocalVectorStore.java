@@ -0,0 +1,361 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * In-process VectorStore backed by an HnswIndex, persisted to a single local file. It
+ * works as a stand-in when no Qdrant is reachable and as a read replica of the Qdrant
+ * collection on each node. Searches run concurrently under a read lock; writes and
+ * snapshot swaps take the write lock.
+ */
+public class LocalVectorStore implements ReplicaVectorStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalVectorStore.class);
+
+    private static final int FILE_MAGIC = 0x4C565331;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+    private final EmbeddingModel embeddingModel;
+    private final Path file;
+    private final String embeddingModelName;
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Snapshot snapshot;
+    private volatile boolean dirty;
+    private volatile boolean ready;
+
+    public LocalVectorStore(EmbeddingModel embeddingModel, Path file, String embeddingModelName,
+                            int dimensions, int m, int efConstruction, int efSearch) {
+        this.embeddingModel = embeddingModel;
+        this.file = file;
+        this.embeddingModelName = embeddingModelName;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.snapshot = newSnapshot(1024);
+    }
+
+    /**
+     * Whether the store holds a usable copy of the knowledge base, either loaded from its
+     * file or filled by a sync or ingestion since startup
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return snapshot.index.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        List<float[]> embeddings = embeddingModel.embed(documents.stream().map(Document::getText).toList());
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                Document document = documents.get(i);
+                snapshot.upsert(document.getId(), document.getText(), document.getMetadata(), embeddings.get(i));
+            }
+            dirty = true;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        lock.writeLock().lock();
+        try {
+            idList.forEach(snapshot::delete);
+            dirty = true;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        lock.writeLock().lock();
+        try {
+            List<String> matching = new ArrayList<>();
+            for (int node = 0; node < snapshot.index.size(); node++) {
+                if (!snapshot.index.isDeleted(node)
+                        && FilterExpressionEvaluator.matches(filterExpression, snapshot.metadata.get(node))) {
+                    matching.add(snapshot.ids.get(node));
+                }
+            }
+            matching.forEach(snapshot::delete);
+            dirty = true;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        return search(embeddingModel.embed(request.getQuery()), request);
+    }
+
+    @Override
+    public List<Document> search(float[] queryVector, SearchRequest request) {
+        return search(queryVector, request, false).stream().map(KnowledgeBaseRetriever.ScoredChunk::document).toList();
+    }
+
+    @Override
+    public List<KnowledgeBaseRetriever.ScoredChunk> searchWithVectors(float[] queryVector, SearchRequest request) {
+        return search(queryVector, request, true);
+    }
+
+    private List<KnowledgeBaseRetriever.ScoredChunk> search(float[] queryVector, SearchRequest request,
+                                                            boolean withVectors) {
+        lock.readLock().lock();
+        try {
+            Snapshot current = snapshot;
+            IntPredicate accept = request.getFilterExpression() == null ? null
+                    : node -> FilterExpressionEvaluator.matches(request.getFilterExpression(), current.metadata.get(node));
+            List<KnowledgeBaseRetriever.ScoredChunk> chunks = new ArrayList<>(request.getTopK());
+            for (HnswIndex.Candidate candidate : current.index.search(queryVector, request.getTopK(), efSearch, accept)) {
+                if (candidate.similarity() < request.getSimilarityThreshold()) {
+                    break;
+                }
+                Document document = Document.builder()
+                        .id(current.ids.get(candidate.node()))
+                        .text(current.texts.get(candidate.node()))
+                        .metadata(new HashMap<>(current.metadata.get(candidate.node())))
+                        .score((double) candidate.similarity())
+                        .build();
+                chunks.add(new KnowledgeBaseRetriever.ScoredChunk(document,
+                        withVectors ? current.index.vector(candidate.node()) : null));
+            }
+            return chunks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the new index without blocking searches on the old one
+     */
+    @Override
+    public void replaceAll(List<StoredPoint> points) {
+        Snapshot replacement = newSnapshot(points.size());
+        for (StoredPoint point : points) {
+            replacement.upsert(point.id(), point.text(), point.metadata(), point.vector());
+        }
+        lock.writeLock().lock();
+        try {
+            snapshot = replacement;
+            dirty = true;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the store to its file if it changed since the last save. The file is written
+     * next to the target and moved into place, so a crash never leaves a torn file.
+     */
+    @Override
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            dirty = false;
+            out.writeInt(FILE_MAGIC);
+            out.writeUTF(embeddingModelName);
+            snapshot.index.writeTo(out);
+            for (int node = 0; node < snapshot.index.size(); node++) {
+                writeBytes(out, snapshot.ids.get(node).getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, snapshot.texts.get(node).getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, objectMapper.writeValueAsBytes(snapshot.metadata.get(node)));
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Saved local vector store with {} points to {}", size(), file);
+    }
+
+    /**
+     * Loads the file written by save. A file from another embedding model or dimension is
+     * ignored, since its vectors are not comparable with new queries.
+     */
+    public void load() {
+        if (!Files.exists(file)) {
+            logger.info("No local vector store file at {}, starting empty", file);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("not a local vector store file");
+            }
+            String storedModel = in.readUTF();
+            HnswIndex index = HnswIndex.readFrom(in);
+            if (!storedModel.equals(embeddingModelName) || index.dimensions() != dimensions) {
+                logger.warn("Ignoring local vector store file {} built for {} ({} dimensions)",
+                           file, storedModel, index.dimensions());
+                return;
+            }
+
+            Snapshot loaded = new Snapshot(index, index.size());
+            for (int node = 0; node < index.size(); node++) {
+                String id = new String(readBytes(in), StandardCharsets.UTF_8);
+                loaded.ids.add(id);
+                loaded.texts.add(new String(readBytes(in), StandardCharsets.UTF_8));
+                loaded.metadata.add(objectMapper.readValue(readBytes(in), METADATA_TYPE));
+                if (!index.isDeleted(node)) {
+                    loaded.nodeById.put(id, node);
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                snapshot = loaded;
+                dirty = false;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("📂 Loaded local vector store with {} points from {}", index.liveCount(), file);
+        } catch (IOException e) {
+            logger.warn("Could not load local vector store from {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Saves on shutdown; called by Spring as the bean's destroy method
+     */
+    public void close() {
+        try {
+            save();
+        } catch (IOException e) {
+            logger.warn("Could not save local vector store to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Deleted nodes still cost memory and traversal time; once they outnumber live ones
+     * the graph is rebuilt from the live vectors. Caller holds the write lock.
+     */
+    private void compactIfNeeded() {
+        HnswIndex index = snapshot.index;
+        if (index.deletedCount() < 1000 || index.deletedCount() < index.liveCount()) {
+            return;
+        }
+        Snapshot compacted = newSnapshot(index.liveCount());
+        for (int node = 0; node < index.size(); node++) {
+            if (!index.isDeleted(node)) {
+                compacted.upsert(snapshot.ids.get(node), snapshot.texts.get(node),
+                        snapshot.metadata.get(node), index.vector(node));
+            }
+        }
+        logger.info("Compacted local vector store from {} to {} nodes", index.size(), compacted.index.size());
+        snapshot = compacted;
+    }
+
+    private Snapshot newSnapshot(int capacity) {
+        return new Snapshot(new HnswIndex(dimensions, m, efConstruction, Math.max(1, capacity)), capacity);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Index plus per-node document data. Node numbers index the lists directly.
+     */
+    private static class Snapshot {
+        private final HnswIndex index;
+        private final List<String> ids;
+        private final List<String> texts;
+        private final List<Map<String, Object>> metadata;
+        private final Map<String, Integer> nodeById;
+
+        Snapshot(HnswIndex index, int capacity) {
+            this.index = index;
+            this.ids = new ArrayList<>(capacity);
+            this.texts = new ArrayList<>(capacity);
+            this.metadata = new ArrayList<>(capacity);
+            this.nodeById = new HashMap<>(capacity * 2);
+        }
+
+        void upsert(String id, String text, Map<String, Object> documentMetadata, float[] vector) {
+            delete(id);
+            int node = index.add(vector);
+            ids.add(id);
+            texts.add(text);
+            metadata.add(new HashMap<>(documentMetadata));
+            nodeById.put(id, node);
+        }
+
+        void delete(String id) {
+            Integer node = nodeById.remove(id);
+            if (node != null) {
+                index.markDeleted(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only embedding store in a memory-mapped file. Each record is a 128-bit hash of
+ * the embedded text followed by the packed float vector, so vectors live off-heap and only
+ * the hash-to-slot index is kept on the heap. One file holds one (model, dimensions) pair;
+ * a file written for different dimensions is discarded on open.
+ */
+public class MappedEmbeddingCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedEmbeddingCache.class);
+
+    private static final int MAGIC = 0x454D4243;
+    private static final int HEADER_BYTES = 16;
+    private static final int KEY_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path file;
+    private final int dimensions;
+    private final int recordBytes;
+    private final int maxEntries;
+    private final FileChannel channel;
+    private final Map<Key, Integer> index = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+    private boolean fullWarningLogged;
+
+    public MappedEmbeddingCache(Path directory, String model, int dimensions, int maxEntries) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(model.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + dimensions + ".bin");
+        this.dimensions = dimensions;
+        this.recordBytes = KEY_BYTES + dimensions * Float.BYTES;
+        this.maxEntries = maxEntries;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int existing = readExistingCount();
+        this.capacity = Math.min(maxEntries, Math.max(INITIAL_CAPACITY, existing));
+        map(capacity);
+
+        if (existing < 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, dimensions);
+            buffer.putInt(8, 0);
+            existing = 0;
+        }
+
+        for (int slot = 0; slot < existing; slot++) {
+            int offset = offsetOf(slot);
+            index.put(new Key(buffer.getLong(offset), buffer.getLong(offset + 8)), slot);
+        }
+        this.count = existing;
+
+        logger.info("Opened embedding cache {} with {} entries", file, count);
+    }
+
+    /**
+     * Returns the cached vector for a text, or null on a miss
+     */
+    public float[] get(String text) {
+        Key key = Key.of(text);
+        lock.readLock().lock();
+        try {
+            Integer slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            int offset = offsetOf(slot) + KEY_BYTES;
+            float[] vector = new float[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = buffer.getFloat(offset + i * Float.BYTES);
+            }
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String text, float[] vector) {
+        if (vector.length != dimensions) {
+            return;
+        }
+
+        Key key = Key.of(text);
+        lock.writeLock().lock();
+        try {
+            if (index.containsKey(key)) {
+                return;
+            }
+            if (count >= capacity && !grow()) {
+                return;
+            }
+
+            int offset = offsetOf(count);
+            buffer.putLong(offset, key.high());
+            buffer.putLong(offset + 8, key.low());
+            for (int i = 0; i < dimensions; i++) {
+                buffer.putFloat(offset + KEY_BYTES + i * Float.BYTES, vector[i]);
+            }
+            index.put(key, count);
+            count++;
+            // The count is written last so a torn write never exposes a half-written record
+            buffer.putInt(8, count);
+        } catch (IOException e) {
+            logger.warn("Could not extend embedding cache {}: {}", file, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean grow() throws IOException {
+        if (capacity >= maxEntries) {
+            if (!fullWarningLogged) {
+                logger.warn("Embedding cache {} reached {} entries; new embeddings will not be cached", file, maxEntries);
+                fullWarningLogged = true;
+            }
+            return false;
+        }
+        capacity = (int) Math.min(maxEntries, (long) capacity * 2);
+        map(capacity);
+        return true;
+    }
+
+    private void map(int entries) throws IOException {
+        long size = HEADER_BYTES + (long) entries * recordBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Embedding cache of " + entries + " entries exceeds a single mapping");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the number of valid records in an existing file, or -1 if the file is new
+     * or was written for other dimensions
+     */
+    private int readExistingCount() throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return -1;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != dimensions) {
+            logger.warn("Discarding embedding cache {} written with a different layout", file);
+            channel.truncate(0);
+            return -1;
+        }
+        long available = (channel.size() - HEADER_BYTES) / recordBytes;
+        return (int) Math.min(Math.min(header.getInt(8), available), maxEntries);
+    }
+
+    private int offsetOf(int slot) {
+        return HEADER_BYTES + slot * recordBytes;
+    }
+
+    private record Key(long high, long low) {
+
+        static Key of(String text) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+                long high = 0;
+                long low = 0;
+                for (int i = 0; i < 8; i++) {
+                    high = (high << 8) | (hash[i] & 0xFF);
+                    low = (low << 8) | (hash[i + 8] & 0xFF);
+                }
+                return new Key(high, low);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Read-only replica that answers with exact search over a memory-mapped matrix of
+ * normalized vectors. For tens of thousands of chunks a full scan of contiguous floats
+ * takes less time than a network round trip, and the vectors and chunk texts stay off
+ * the heap. Only the small metadata maps are decoded onto the heap, so filters can be
+ * checked during the scan.
+ *
+ * File layout, little-endian: a header with magic, version, dimensions, point count and
+ * the embedding model name; the vectors, row by row; a table of (payload offset, metadata
+ * length, text length) per point; then per point its id, metadata JSON and text.
+ *
+ * Scans are split into partitions across the common fork-join pool once the matrix is
+ * large enough for the fan-out to pay off.
+ */
+public class MappedFlatVectorStore implements ReplicaVectorStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFlatVectorStore.class);
+
+    private static final int FILE_MAGIC = 0x4D465653;
+    private static final int FORMAT_VERSION = 1;
+    private static final int ROW_TABLE_BYTES = Long.BYTES + Integer.BYTES * 3;
+    private static final int MIN_PARTITION_ROWS = 4096;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+    private final EmbeddingModel embeddingModel;
+    private final Path file;
+    private final String embeddingModelName;
+    private final int dimensions;
+    private final int maxPartitions;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Mapping mapping;
+
+    public MappedFlatVectorStore(EmbeddingModel embeddingModel, Path file, String embeddingModelName,
+                                 int dimensions, int maxPartitions) {
+        this.embeddingModel = embeddingModel;
+        this.file = file;
+        this.embeddingModelName = embeddingModelName;
+        this.dimensions = dimensions;
+        this.maxPartitions = Math.max(1, maxPartitions);
+    }
+
+    @Override
+    public boolean isReady() {
+        return mapping != null;
+    }
+
+    @Override
+    public int size() {
+        Mapping current = mapping;
+        return current != null ? current.count : 0;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        throw new UnsupportedOperationException("The mapped vector store is a read-only replica");
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        throw new UnsupportedOperationException("The mapped vector store is a read-only replica");
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        throw new UnsupportedOperationException("The mapped vector store is a read-only replica");
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        return search(embeddingModel.embed(request.getQuery()), request);
+    }
+
+    @Override
+    public List<Document> search(float[] queryVector, SearchRequest request) {
+        return search(queryVector, request, false).stream().map(KnowledgeBaseRetriever.ScoredChunk::document).toList();
+    }
+
+    @Override
+    public List<KnowledgeBaseRetriever.ScoredChunk> searchWithVectors(float[] queryVector, SearchRequest request) {
+        return search(queryVector, request, true);
+    }
+
+    private List<KnowledgeBaseRetriever.ScoredChunk> search(float[] queryVector, SearchRequest request,
+                                                            boolean withVectors) {
+        Mapping current = mapping;
+        if (current == null || current.count == 0) {
+            return List.of();
+        }
+        float[] query = normalize(queryVector);
+        int topK = request.getTopK();
+        float threshold = (float) request.getSimilarityThreshold();
+        Filter.Expression filter = request.getFilterExpression();
+
+        int partitions = Math.min(maxPartitions, Math.max(1, current.count / MIN_PARTITION_ROWS));
+        PriorityQueue<HnswIndex.Candidate> best;
+        if (partitions == 1) {
+            best = scan(current, query, 0, current.count, topK, threshold, filter);
+        } else {
+            int rowsPerPartition = (current.count + partitions - 1) / partitions;
+            best = IntStream.range(0, partitions).parallel()
+                    .mapToObj(partition -> scan(current, query, partition * rowsPerPartition,
+                            Math.min(current.count, (partition + 1) * rowsPerPartition), topK, threshold, filter))
+                    .reduce((left, right) -> merge(left, right, topK))
+                    .orElseGet(PriorityQueue::new);
+        }
+
+        List<HnswIndex.Candidate> ordered = new ArrayList<>(best);
+        ordered.sort(HnswIndex.Candidate.BEST_FIRST);
+        List<KnowledgeBaseRetriever.ScoredChunk> chunks = new ArrayList<>(ordered.size());
+        for (HnswIndex.Candidate candidate : ordered) {
+            float[] vector = null;
+            if (withVectors) {
+                vector = new float[dimensions];
+                current.vectors.get(candidate.node() * dimensions, vector);
+            }
+            chunks.add(new KnowledgeBaseRetriever.ScoredChunk(
+                    current.document(candidate.node(), candidate.similarity()), vector));
+        }
+        return chunks;
+    }
+
+    private PriorityQueue<HnswIndex.Candidate> scan(Mapping current, float[] query, int from, int to, int topK,
+                                                    float threshold, Filter.Expression filter) {
+        PriorityQueue<HnswIndex.Candidate> best = new PriorityQueue<>(topK + 1, HnswIndex.Candidate.WORST_FIRST);
+        FloatBuffer vectors = current.vectors;
+        for (int row = from; row < to; row++) {
+            if (filter != null && !FilterExpressionEvaluator.matches(filter, current.metadata.get(row))) {
+                continue;
+            }
+            float similarity = dot(query, vectors, row * dimensions);
+            if (similarity < threshold) {
+                continue;
+            }
+            if (best.size() < topK) {
+                best.add(new HnswIndex.Candidate(row, similarity));
+            } else if (similarity > best.peek().similarity()) {
+                best.poll();
+                best.add(new HnswIndex.Candidate(row, similarity));
+            }
+        }
+        return best;
+    }
+
+    private static PriorityQueue<HnswIndex.Candidate> merge(PriorityQueue<HnswIndex.Candidate> left,
+                                                            PriorityQueue<HnswIndex.Candidate> right, int topK) {
+        for (HnswIndex.Candidate candidate : right) {
+            left.add(candidate);
+            if (left.size() > topK) {
+                left.poll();
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Four independent accumulators let the JIT keep several multiply-adds in flight and
+     * vectorize the loop body; absolute gets on the mapped buffer avoid copying rows
+     */
+    private float dot(float[] query, FloatBuffer vectors, int offset) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int limit = dimensions - 3; i < limit; i += 4) {
+            s0 += query[i] * vectors.get(offset + i);
+            s1 += query[i + 1] * vectors.get(offset + i + 1);
+            s2 += query[i + 2] * vectors.get(offset + i + 2);
+            s3 += query[i + 3] * vectors.get(offset + i + 3);
+        }
+        for (; i < dimensions; i++) {
+            s0 += query[i] * vectors.get(offset + i);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    /**
+     * Writes a new snapshot next to the current file, moves it into place and maps it.
+     * Searches keep using the previous mapping until the swap.
+     */
+    @Override
+    public synchronized void replaceAll(List<StoredPoint> points) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        write(temporary, points);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapping = open(file);
+        logger.info("Mapped {} vectors ({} MB) from {}", points.size(),
+                   (long) points.size() * dimensions * Float.BYTES / (1024 * 1024), file);
+    }
+
+    /**
+     * Nothing is held back in memory; every snapshot is written completely by replaceAll
+     */
+    @Override
+    public void save() {
+    }
+
+    /**
+     * Maps the existing snapshot file, if there is one for this embedding model
+     */
+    public void load() {
+        if (!Files.exists(file)) {
+            logger.info("No mapped vector snapshot at {}, waiting for the first sync", file);
+            return;
+        }
+        try {
+            mapping = open(file);
+            logger.info("📂 Mapped vector snapshot with {} points from {}", mapping.count, file);
+        } catch (IOException e) {
+            logger.warn("Could not map vector snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void write(Path target, List<StoredPoint> points) throws IOException {
+        byte[] model = embeddingModelName.getBytes(StandardCharsets.UTF_8);
+        int headerBytes = align(Integer.BYTES * 5 + model.length);
+        long vectorsBytes = (long) points.size() * dimensions * Float.BYTES;
+        long tableStart = headerBytes + vectorsBytes;
+        long payloadStart = tableStart + (long) points.size() * ROW_TABLE_BYTES;
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(FILE_MAGIC).putInt(FORMAT_VERSION).putInt(dimensions).putInt(points.size())
+                  .putInt(model.length).put(model);
+            header.rewind();
+            channel.write(header, 0);
+
+            ByteBuffer row = ByteBuffer.allocate(dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer table = ByteBuffer.allocate(ROW_TABLE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long payloadPosition = payloadStart;
+            for (int i = 0; i < points.size(); i++) {
+                StoredPoint point = points.get(i);
+                if (point.vector().length != dimensions) {
+                    throw new IOException("Point " + point.id() + " has " + point.vector().length + " dimensions");
+                }
+                row.clear();
+                for (float value : normalize(point.vector())) {
+                    row.putFloat(value);
+                }
+                row.flip();
+                channel.write(row, headerBytes + (long) i * dimensions * Float.BYTES);
+
+                byte[] id = point.id().getBytes(StandardCharsets.UTF_8);
+                byte[] metadata = objectMapper.writeValueAsBytes(point.metadata());
+                byte[] text = point.text().getBytes(StandardCharsets.UTF_8);
+                table.clear();
+                table.putLong(payloadPosition).putInt(id.length).putInt(metadata.length).putInt(text.length);
+                table.flip();
+                channel.write(table, tableStart + (long) i * ROW_TABLE_BYTES);
+
+                ByteBuffer payload = ByteBuffer.allocate(id.length + metadata.length + text.length);
+                payload.put(id).put(metadata).put(text).flip();
+                channel.write(payload, payloadPosition);
+                payloadPosition += payload.capacity();
+            }
+            channel.force(false);
+        }
+    }
+
+    private Mapping open(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot of " + size + " bytes exceeds the 2 GB mapping limit");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("not a mapped vector snapshot");
+            }
+            int storedDimensions = buffer.getInt(8);
+            int count = buffer.getInt(12);
+            byte[] model = new byte[buffer.getInt(16)];
+            buffer.get(20, model);
+            String storedModel = new String(model, StandardCharsets.UTF_8);
+            if (storedDimensions != dimensions || !storedModel.equals(embeddingModelName)) {
+                throw new IOException("snapshot was built for " + storedModel + " (" + storedDimensions + " dimensions)");
+            }
+
+            int headerBytes = align(Integer.BYTES * 5 + model.length);
+            int tableStart = headerBytes + count * dimensions * Float.BYTES;
+            FloatBuffer vectors = buffer.slice(headerBytes, count * dimensions * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+
+            Mapping opened = new Mapping(buffer, vectors, count, tableStart);
+            for (int i = 0; i < count; i++) {
+                opened.metadata.add(objectMapper.readValue(opened.bytes(opened.idEnd(i), opened.metadataLength(i)),
+                        METADATA_TYPE));
+            }
+            return opened;
+        }
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 63) & ~63;
+    }
+
+    /**
+     * One mapped snapshot. Absolute reads never move buffer positions, so concurrent
+     * searches share it without copies.
+     */
+    private static class Mapping {
+        private final MappedByteBuffer buffer;
+        private final FloatBuffer vectors;
+        private final int count;
+        private final int tableStart;
+        private final List<Map<String, Object>> metadata;
+
+        Mapping(MappedByteBuffer buffer, FloatBuffer vectors, int count, int tableStart) {
+            this.buffer = buffer;
+            this.vectors = vectors;
+            this.count = count;
+            this.tableStart = tableStart;
+            this.metadata = new ArrayList<>(count);
+        }
+
+        private int row(int index) {
+            return tableStart + index * ROW_TABLE_BYTES;
+        }
+
+        int payloadStart(int index) {
+            return (int) buffer.getLong(row(index));
+        }
+
+        int idEnd(int index) {
+            return payloadStart(index) + buffer.getInt(row(index) + Long.BYTES);
+        }
+
+        int metadataLength(int index) {
+            return buffer.getInt(row(index) + Long.BYTES + Integer.BYTES);
+        }
+
+        byte[] bytes(int offset, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return bytes;
+        }
+
+        Document document(int index, float similarity) {
+            int idLength = buffer.getInt(row(index) + Long.BYTES);
+            int textLength = buffer.getInt(row(index) + Long.BYTES + Integer.BYTES * 2);
+            int start = payloadStart(index);
+            String id = new String(bytes(start, idLength), StandardCharsets.UTF_8);
+            String text = new String(bytes(idEnd(index) + metadataLength(index), textLength), StandardCharsets.UTF_8);
+            return Document.builder()
+                    .id(id)
+                    .text(text)
+                    .metadata(new HashMap<>(metadata.get(index)))
+                    .score((double) similarity)
+                    .build();
+        }
+    }
+}
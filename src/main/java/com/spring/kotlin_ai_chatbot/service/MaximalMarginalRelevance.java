@@ -0,0 +1,106 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maximal marginal relevance: picks results one at a time, each maximizing
+ * lambda * relevance - (1 - lambda) * (highest similarity to anything already picked).
+ * Adjacent chunks of the same book score almost the same against a query; this keeps
+ * the first of them and spends the remaining slots on different material.
+ *
+ * Vectors are normalized once, so every similarity is a plain dot product over float
+ * arrays, and the highest similarity per candidate is updated incrementally as picks
+ * are made instead of recomputed against the whole selection.
+ */
+public final class MaximalMarginalRelevance {
+
+    private MaximalMarginalRelevance() {
+    }
+
+    /**
+     * Returns the indexes of the selected candidates in pick order. Candidates at least
+     * duplicateThreshold similar to a picked one are never picked, so fewer than k may
+     * come back. A null vector marks a candidate without one, which is never treated as
+     * similar to anything.
+     */
+    public static List<Integer> select(float[][] vectors, double[] relevance, int k, double lambda,
+                                       double duplicateThreshold) {
+        int candidates = vectors.length;
+        float[][] normalized = new float[candidates][];
+        for (int i = 0; i < candidates; i++) {
+            normalized[i] = vectors[i] != null ? normalize(vectors[i]) : null;
+        }
+
+        double[] maxSimilarity = new double[candidates];
+        boolean[] excluded = new boolean[candidates];
+        List<Integer> selected = new ArrayList<>(Math.min(k, candidates));
+        while (selected.size() < k) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < candidates; i++) {
+                if (excluded[i]) {
+                    continue;
+                }
+                double score = lambda * relevance[i] - (1 - lambda) * maxSimilarity[i];
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            selected.add(best);
+            excluded[best] = true;
+
+            if (normalized[best] == null) {
+                continue;
+            }
+            for (int i = 0; i < candidates; i++) {
+                if (excluded[i] || normalized[i] == null) {
+                    continue;
+                }
+                double similarity = dot(normalized[best], normalized[i]);
+                if (similarity >= duplicateThreshold) {
+                    excluded[i] = true;
+                } else if (similarity > maxSimilarity[i]) {
+                    maxSimilarity[i] = similarity;
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int length = Math.min(a.length, b.length);
+        int i = 0;
+        for (int limit = length - 3; i < limit; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
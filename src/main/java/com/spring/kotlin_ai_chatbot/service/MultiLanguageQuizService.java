@@ -12,7 +12,7 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -24,7 +24,7 @@ public class MultiLanguageQuizService {
     private static final Logger logger = LoggerFactory.getLogger(MultiLanguageQuizService.class);
 
     private final ChatModel chatModel;
-    private final VectorStore vectorStore;
+    private final KnowledgeBaseRetriever retriever;
     private final QuizSessionService sessionService;
     private final ObjectMapper objectMapper;
     private final Random random;
@@ -184,11 +184,11 @@ public class MultiLanguageQuizService {
             """;
 
     public MultiLanguageQuizService(ChatModel chatModel,
-                                  VectorStore vectorStore,
+                                  KnowledgeBaseRetriever retriever,
                                   QuizSessionService sessionService,
                                   @Value("${app.chatbot.max-context-documents:2}") int maxContextDocuments) {
         this.chatModel = chatModel;
-        this.vectorStore = vectorStore;
+        this.retriever = retriever;
         this.sessionService = sessionService;
         this.objectMapper = new ObjectMapper();
         this.random = new Random();
@@ -359,9 +359,14 @@ public class MultiLanguageQuizService {
                     .query(topic + " " + language + " programming")
                     .topK(maxContextDocuments)
                     .similarityThreshold(0.5)
+                    .filterExpression(new FilterExpressionBuilder()
+                            .in(ChunkMetadata.LANGUAGE, language, "general").build())
                     .build();
 
-            List<Document> docs = vectorStore.similaritySearch(request);
+            List<Document> docs;
+            try (EmbeddingCaller.Scope caller = EmbeddingCaller.open("quiz")) {
+                docs = retriever.search(request, List.of());
+            }
             
             if (docs.isEmpty()) {
                 return "";
@@ -0,0 +1,208 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds chunks that are near-duplicates of chunks already stored, across all documents.
+ * Each chunk is reduced to a 64-bit SimHash of its word 3-shingles; two chunks are
+ * near-duplicates when their fingerprints differ in at most maxDistance bits. Lookups
+ * split the fingerprint into maxDistance + 1 bands: by the pigeonhole principle any
+ * match agrees exactly on at least one band, so only fingerprints sharing a band are
+ * compared instead of the whole index.
+ *
+ * A chunk is only treated as a duplicate of a chunk from its own source or from a source
+ * whose name sorts before it, so which document keeps a shared chunk does not depend on
+ * the order in which parallel workers happen to process them.
+ */
+public class NearDuplicateIndex {
+
+    /**
+     * Returned for texts too short to fingerprint reliably; such chunks are never deduplicated
+     */
+    public static final long NO_FINGERPRINT = 0L;
+
+    private static final int SHINGLE_WORDS = 3;
+    private static final int MIN_WORDS = 8;
+
+    private final int maxDistance;
+    private final int[] bandShifts;
+    private final long[] bandMasks;
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+    private final Map<String, List<Long>> fingerprintsBySource = new HashMap<>();
+
+    public NearDuplicateIndex(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > 15) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and 15");
+        }
+        this.maxDistance = maxDistance;
+
+        int bands = maxDistance + 1;
+        this.bandShifts = new int[bands];
+        this.bandMasks = new long[bands];
+        int shift = 0;
+        for (int band = 0; band < bands; band++) {
+            int width = Long.SIZE / bands + (band < Long.SIZE % bands ? 1 : 0);
+            bandShifts[band] = shift;
+            bandMasks[band] = width == Long.SIZE ? -1L : (1L << width) - 1;
+            shift += width;
+        }
+    }
+
+    /**
+     * Adds the chunk's fingerprint unless the index already holds a near-duplicate of it.
+     * Returns the source holding that near-duplicate when the chunk should be dropped, or
+     * null once the chunk has been added.
+     */
+    public synchronized String admit(String source, String text) {
+        long fingerprint = fingerprint(text);
+        if (fingerprint == NO_FINGERPRINT) {
+            return null;
+        }
+        String duplicateSource = findNear(source, fingerprint);
+        if (duplicateSource != null) {
+            return duplicateSource;
+        }
+        add(source, fingerprint);
+        return null;
+    }
+
+    /**
+     * Adds a chunk that is kept regardless, such as one already in the vector store
+     */
+    public synchronized void register(String source, String text) {
+        long fingerprint = fingerprint(text);
+        if (fingerprint != NO_FINGERPRINT) {
+            add(source, fingerprint);
+        }
+    }
+
+    public synchronized void replaceSource(String source, Collection<Long> fingerprints) {
+        removeSource(source);
+        for (long fingerprint : fingerprints) {
+            add(source, fingerprint);
+        }
+    }
+
+    public synchronized void removeSource(String source) {
+        List<Long> fingerprints = fingerprintsBySource.remove(source);
+        if (fingerprints == null) {
+            return;
+        }
+        for (long fingerprint : fingerprints) {
+            for (int band = 0; band < bandShifts.length; band++) {
+                List<Entry> bucket = buckets.get(bucketKey(band, fingerprint));
+                if (bucket != null) {
+                    bucket.removeIf(entry -> entry.fingerprint() == fingerprint && entry.source().equals(source));
+                }
+            }
+        }
+    }
+
+    public synchronized List<Long> fingerprintsOf(String source) {
+        return new ArrayList<>(fingerprintsBySource.getOrDefault(source, List.of()));
+    }
+
+    private String findNear(String source, long fingerprint) {
+        for (int band = 0; band < bandShifts.length; band++) {
+            List<Entry> bucket = buckets.get(bucketKey(band, fingerprint));
+            if (bucket == null) {
+                continue;
+            }
+            for (Entry entry : bucket) {
+                if (Long.bitCount(entry.fingerprint() ^ fingerprint) <= maxDistance
+                        && entry.source().compareTo(source) <= 0) {
+                    return entry.source();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void add(String source, long fingerprint) {
+        Entry entry = new Entry(fingerprint, source);
+        for (int band = 0; band < bandShifts.length; band++) {
+            buckets.computeIfAbsent(bucketKey(band, fingerprint), key -> new ArrayList<>()).add(entry);
+        }
+        fingerprintsBySource.computeIfAbsent(source, key -> new ArrayList<>()).add(fingerprint);
+    }
+
+    /**
+     * Band values are at most 64 bits wide for a single band and at most 32 bits otherwise,
+     * so the band number fits in the high bits of the key
+     */
+    private long bucketKey(int band, long fingerprint) {
+        long value = (fingerprint >>> bandShifts[band]) & bandMasks[band];
+        return bandShifts.length == 1 ? value : ((long) band << 56) ^ value;
+    }
+
+    /**
+     * 64-bit SimHash over lowercase word 3-shingles, so that reordered boilerplate and
+     * small edits move only a few bits
+     */
+    public static long fingerprint(CharSequence text) {
+        if (text == null) {
+            return NO_FINGERPRINT;
+        }
+
+        long[] wordHashes = new long[Math.max(16, text.length() / 4)];
+        int words = 0;
+        long hash = 0;
+        boolean inWord = false;
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = inWord ? (hash ^ c) * 0x100000001B3L : (0xCBF29CE484222325L ^ c) * 0x100000001B3L;
+                inWord = true;
+            } else if (inWord) {
+                if (words == wordHashes.length) {
+                    wordHashes = Arrays.copyOf(wordHashes, words * 2);
+                }
+                wordHashes[words++] = hash;
+                inWord = false;
+            }
+        }
+        if (words < MIN_WORDS) {
+            return NO_FINGERPRINT;
+        }
+
+        int[] weights = new int[Long.SIZE];
+        for (int start = 0; start + SHINGLE_WORDS <= words; start++) {
+            long shingle = 0;
+            for (int w = 0; w < SHINGLE_WORDS; w++) {
+                shingle = Long.rotateLeft(shingle, 21) ^ wordHashes[start + w];
+            }
+            shingle = mix(shingle);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                weights[bit] += ((shingle >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint == NO_FINGERPRINT ? 1L : fingerprint;
+    }
+
+    /**
+     * MurmurHash3 finalizer, spreading FNV word hashes evenly over all 64 bits
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private record Entry(long fingerprint, String source) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Requests-per-minute and tokens-per-minute buckets shared by every call to the OpenAI
+ * account, so an ingestion burst and live questions draw from the same budget instead of
+ * discovering the limit through 429s. Callers reserve capacity up front; when a bucket is
+ * short the reservation drives it negative and the caller sleeps until the refill covers
+ * it, so waiting callers are served in the order they arrived without polling.
+ */
+public class OpenAiRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiRateLimiter.class);
+    private static final long WARN_WAIT_MS = 2000;
+
+    private final Bucket requests;
+    private final Bucket tokens;
+    private final AtomicInteger waitingCallers = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public OpenAiRateLimiter(int requestsPerMinute, int tokensPerMinute, MeterRegistry meterRegistry) {
+        this.requests = new Bucket(requestsPerMinute);
+        this.tokens = new Bucket(tokensPerMinute);
+        this.meterRegistry = meterRegistry;
+
+        if (meterRegistry != null) {
+            Gauge.builder("openai.ratelimit.utilization", this, limiter -> limiter.utilization(requests))
+                    .tag("bucket", "requests")
+                    .description("Share of the per-minute request budget currently in use")
+                    .register(meterRegistry);
+            Gauge.builder("openai.ratelimit.utilization", this, limiter -> limiter.utilization(tokens))
+                    .tag("bucket", "tokens")
+                    .description("Share of the per-minute token budget currently in use")
+                    .register(meterRegistry);
+            Gauge.builder("openai.ratelimit.waiting", waitingCallers, AtomicInteger::get)
+                    .description("Callers currently queued for rate limit capacity")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Blocks until one request and the estimated tokens fit the budget
+     */
+    public void acquire(String caller, int estimatedTokens) {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            waitNanos = Math.max(requests.reserve(1, now), tokens.reserve(estimatedTokens, now));
+        }
+
+        if (waitNanos > 0) {
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+            if (waitMs >= WARN_WAIT_MS) {
+                logger.warn("⏳ {} call queued {}ms for OpenAI rate limit ({} tokens)", caller, waitMs, estimatedTokens);
+            } else {
+                logger.debug("{} call queued {}ms for OpenAI rate limit", caller, waitMs);
+            }
+
+            waitingCallers.incrementAndGet();
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for OpenAI rate limit", e);
+            } finally {
+                waitingCallers.decrementAndGet();
+            }
+        }
+
+        if (meterRegistry != null) {
+            Timer.builder("openai.ratelimit.wait")
+                    .tag("caller", caller)
+                    .description("Time calls spent queued for rate limit capacity")
+                    .register(meterRegistry)
+                    .record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Corrects the token bucket once the provider reports what a call actually used
+     */
+    public synchronized void settle(int estimatedTokens, int actualTokens) {
+        if (actualTokens > 0 && actualTokens != estimatedTokens) {
+            tokens.refund(estimatedTokens - actualTokens, System.nanoTime());
+        }
+    }
+
+    private synchronized double utilization(Bucket bucket) {
+        return bucket.utilization(System.nanoTime());
+    }
+
+    /**
+     * Not thread-safe on its own; guarded by the limiter's monitor
+     */
+    private static class Bucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double available;
+        private long updatedAt;
+
+        Bucket(int perMinute) {
+            this.capacity = Math.max(1, perMinute);
+            this.refillPerNano = capacity / TimeUnit.MINUTES.toNanos(1);
+            this.available = capacity;
+            this.updatedAt = System.nanoTime();
+        }
+
+        /**
+         * Takes the amount and returns how long the caller has to wait for it to be covered.
+         * A single request larger than the whole bucket is charged as a full bucket.
+         */
+        long reserve(int amount, long now) {
+            refill(now);
+            double needed = Math.min(capacity, Math.max(0, amount));
+            available -= needed;
+            return available >= 0 ? 0 : (long) Math.ceil(-available / refillPerNano);
+        }
+
+        void refund(int amount, long now) {
+            refill(now);
+            available = Math.min(capacity, available + amount);
+        }
+
+        private void refill(long now) {
+            available = Math.min(capacity, available + (now - updatedAt) * refillPerNano);
+            updatedAt = now;
+        }
+
+        double utilization(long now) {
+            refill(now);
+            return Math.min(1.0, Math.max(0.0, 1.0 - available / capacity));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.core.io.Resource;
+
+/**
+ * Reads a PDF a few pages at a time instead of extracting the whole book up front.
+ * Only the current window of page texts is ever held on the heap; PDFBox parses page
+ * content lazily as each page is stripped. Files on disk are memory-mapped rather than
+ * copied through a stream, so the page cache backs the bytes PDFBox reads.
+ */
+public class PageWindowPdfReader implements IngestionPipeline.PageSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageWindowPdfReader.class);
+
+    private final Resource pdfResource;
+    private final int pagesPerWindow;
+    private final IntConsumer pageCountListener;
+
+    public PageWindowPdfReader(Resource pdfResource, int pagesPerWindow) {
+        this(pdfResource, pagesPerWindow, pageCount -> { });
+    }
+
+    /**
+     * The listener is told the page count once the document is opened, before any page is read
+     */
+    public PageWindowPdfReader(Resource pdfResource, int pagesPerWindow, IntConsumer pageCountListener) {
+        this.pdfResource = pdfResource;
+        this.pagesPerWindow = Math.max(1, pagesPerWindow);
+        this.pageCountListener = pageCountListener;
+    }
+
+    @Override
+    public void read(IngestionPipeline.PageSink sink) throws Exception {
+        String filename = pdfResource.getFilename();
+
+        try (PDDocument document = load()) {
+            int pageCount = document.getNumberOfPages();
+            logger.debug("Streaming {} pages of {} in windows of {}", pageCount, filename, pagesPerWindow);
+            pageCountListener.accept(pageCount);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+
+            for (int windowStart = 1; windowStart <= pageCount; windowStart += pagesPerWindow) {
+                int windowEnd = Math.min(windowStart + pagesPerWindow - 1, pageCount);
+                List<Document> window = new ArrayList<>(windowEnd - windowStart + 1);
+
+                for (int pageNumber = windowStart; pageNumber <= windowEnd; pageNumber++) {
+                    stripper.setStartPage(pageNumber);
+                    stripper.setEndPage(pageNumber);
+                    String text = stripper.getText(document);
+                    if (text == null || text.isBlank()) {
+                        continue;
+                    }
+
+                    Map<String, Object> metadata = new HashMap<>();
+                    metadata.put(ChunkMetadata.PAGE, pageNumber);
+                    window.add(new Document(text, metadata));
+                }
+
+                if (!window.isEmpty()) {
+                    sink.accept(window);
+                }
+            }
+        }
+    }
+
+    private PDDocument load() throws IOException {
+        if (pdfResource.isFile()) {
+            return Loader.loadPDF(new RandomAccessReadMemoryMappedFile(pdfResource.getFile()));
+        }
+        return Loader.loadPDF(new RandomAccessReadBuffer(pdfResource.getInputStream()));
+    }
+}
@@ -0,0 +1,192 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingests PDFs dropped into a filesystem folder without a redeploy. A file is only picked
+ * up once no events arrived for it during the debounce interval and its size and
+ * modification time stayed the same across that interval, so copies still in progress
+ * are left alone. Unchanged files cost one hash thanks to the ingestion manifest.
+ */
+@Service
+@ConditionalOnProperty(name = "app.pdf.watch.enabled", havingValue = "true")
+public class PdfFolderWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfFolderWatcher.class);
+
+    private final PdfProcessingService pdfProcessingService;
+    private final Path directory;
+    private final long debounceMs;
+    private final Map<Path, PendingFile> pending = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public PdfFolderWatcher(PdfProcessingService pdfProcessingService,
+                            @Value("${app.pdf.watch.directory}") String directory,
+                            @Value("${app.pdf.watch.debounce-ms:3000}") long debounceMs) {
+        this.pdfProcessingService = pdfProcessingService;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.debounceMs = Math.max(100, debounceMs);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watchThread = new Thread(this::watchLoop, "pdf-folder-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("👀 Watching {} for new or changed PDFs (debounce {}ms)", directory, debounceMs);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watchLoop() {
+        // Files that arrived while the application was down go through the same debounce
+        enqueueExistingFiles();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                WatchKey key = watchService.poll(debounceMs / 2, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collectEvents(key);
+                }
+                ingestSettledFiles();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Error in PDF folder watcher: {}", e.getMessage(), e);
+            }
+        }
+        logger.info("Stopped watching {}", directory);
+    }
+
+    private void collectEvents(WatchKey key) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                logger.warn("Watch events for {} overflowed, rescanning the folder", directory);
+                enqueueExistingFiles();
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (file.getFileName().toString().toLowerCase().endsWith(".pdf")) {
+                pending.computeIfAbsent(file, PendingFile::new).touch();
+            }
+        }
+        if (!key.reset()) {
+            logger.error("Watched folder {} is no longer accessible", directory);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ingestSettledFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingFile file = iterator.next().getValue();
+            if (now - file.lastEventAt < debounceMs) {
+                continue;
+            }
+            if (!PdfProcessingService.isPdfFile(file.path)) {
+                iterator.remove();
+                continue;
+            }
+            if (!file.isStable()) {
+                continue;
+            }
+
+            iterator.remove();
+            logger.info("📥 Ingesting {} from watched folder", file.path.getFileName());
+            PdfProcessingService.ProcessingResult result =
+                    pdfProcessingService.processPdfResource(new FileSystemResource(file.path));
+            if (result.isSuccessful()) {
+                logger.info("✅ {} is live ({} chunks, {} newly embedded, {}ms)", file.path.getFileName(),
+                           result.getChunksCreated(), result.getChunksEmbedded(), result.getProcessingTimeMs());
+            } else {
+                logger.error("❌ Failed to ingest {} from watched folder: {}",
+                            file.path.getFileName(), result.getErrorMessage());
+            }
+        }
+    }
+
+    private void enqueueExistingFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(PdfProcessingService::isPdfFile)
+                 .forEach(file -> pending.computeIfAbsent(file, PendingFile::new).touch());
+        } catch (IOException e) {
+            logger.warn("Could not list watched folder {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * A file seen by the watcher but not yet ingested. It counts as stable once two checks
+     * at least one debounce interval apart see the same size and modification time.
+     */
+    private static class PendingFile {
+        private final Path path;
+        private long lastEventAt;
+        private long size = -1;
+        private long modifiedAt = -1;
+
+        PendingFile(Path path) {
+            this.path = path;
+        }
+
+        void touch() {
+            lastEventAt = System.currentTimeMillis();
+        }
+
+        boolean isStable() {
+            try {
+                long currentSize = Files.size(path);
+                long currentModifiedAt = Files.getLastModifiedTime(path).toMillis();
+                boolean stable = currentSize > 0 && currentSize == size && currentModifiedAt == modifiedAt;
+                size = currentSize;
+                modifiedAt = currentModifiedAt;
+                if (!stable) {
+                    touch();
+                }
+                return stable;
+            } catch (IOException e) {
+                touch();
+                return false;
+            }
+        }
+    }
+}
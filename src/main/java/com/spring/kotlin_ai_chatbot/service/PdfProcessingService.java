@@ -1,22 +1,47 @@
 package com.spring.kotlin_ai_chatbot.service;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.reader.pdf.PagePdfDocumentReader;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
 import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
+import com.spring.kotlin_ai_chatbot.data.IngestionManifest;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -25,41 +50,108 @@ public class PdfProcessingService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfProcessingService.class);
 
+    private static final int METADATA_SCHEMA_VERSION = 4;
+
     private final VectorStore vectorStore;
     private final ResourceLoader resourceLoader;
+    private final IngestionManifestService manifestService;
+    private final IngestionCheckpointService checkpointService;
     private final int chunkSize;
     private final int chunkOverlap;
     private final int batchSize;
+    private final int maxBatchTokens;
+    private final int pagesPerWindow;
+    private final int parallelWorkers;
+    private final Semaphore embeddingPermits;
+    private final int pipelineQueueCapacity;
+    private final int pipelineEnrichWorkers;
+    private final int pipelineStoreWorkers;
+    private final String pipelineFingerprint;
+    private final String checkpointFingerprint;
+    private final Path watchDirectory;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final LexicalSearchService lexicalSearch;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int boilerplateMinRepeats;
+    private final double boilerplateMinPageRatio;
+    private final int boilerplateWarmupPages;
+    private final Map<String, ReentrantLock> documentLocks = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> duplicateDependents = new ConcurrentHashMap<>();
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+
+    /**
+     * Ordered, since the classifier gives tied scores to the language listed first
+     */
+    static final Map<String, List<String>> LANGUAGE_KEYWORDS = languageKeywords();
 
-    private static final Map<String, Pattern> LANGUAGE_PATTERNS = Map.of(
-        "kotlin", Pattern.compile("\\b(fun|val|var|class|object|interface|when|sealed|data class|suspend)\\b", Pattern.CASE_INSENSITIVE),
-        "java", Pattern.compile("\\b(public|private|protected|static|final|class|interface|extends|implements|package)\\b", Pattern.CASE_INSENSITIVE),
-        "python", Pattern.compile("\\b(def|class|import|from|if __name__|self|print|lambda|yield)\\b", Pattern.CASE_INSENSITIVE),
-        "javascript", Pattern.compile("\\b(function|const|let|var|=>|async|await|console\\.log|require|module\\.exports)\\b", Pattern.CASE_INSENSITIVE),
-        "typescript", Pattern.compile("\\b(interface|type|enum|namespace|declare|readonly|public|private|protected)\\b", Pattern.CASE_INSENSITIVE),
-        "csharp", Pattern.compile("\\b(public|private|protected|static|readonly|namespace|using|class|interface|struct)\\b", Pattern.CASE_INSENSITIVE),
-        "cpp", Pattern.compile("\\b(#include|namespace|std::|public:|private:|protected:|class|struct|template|virtual)\\b", Pattern.CASE_INSENSITIVE),
-        "rust", Pattern.compile("\\b(fn|let|mut|pub|struct|enum|impl|trait|use|mod|match)\\b", Pattern.CASE_INSENSITIVE),
-        "go", Pattern.compile("\\b(func|package|import|var|const|type|struct|interface|go|defer|chan)\\b", Pattern.CASE_INSENSITIVE),
-        "swift", Pattern.compile("\\b(func|var|let|class|struct|enum|protocol|extension|import|public|private)\\b", Pattern.CASE_INSENSITIVE)
-    );
+    private static final LanguageKeywordClassifier LANGUAGE_CLASSIFIER = new LanguageKeywordClassifier(LANGUAGE_KEYWORDS);
 
     public PdfProcessingService(VectorStore vectorStore,
             ResourceLoader resourceLoader,
+            IngestionManifestService manifestService,
+            IngestionCheckpointService checkpointService,
+            LexicalSearchService lexicalSearch,
+            ApplicationEventPublisher eventPublisher,
             @Value("${app.pdf.processing.chunk-size:800}") int chunkSize,
             @Value("${app.pdf.processing.chunk-overlap:100}") int chunkOverlap,
-            @Value("${app.pdf.processing.batch-size:50}") int batchSize) {
+            @Value("${app.pdf.processing.batch-size:50}") int batchSize,
+            @Value("${app.pdf.processing.max-batch-tokens:8000}") int maxBatchTokens,
+            @Value("${app.pdf.processing.pages-per-window:8}") int pagesPerWindow,
+            @Value("${app.pdf.processing.parallel-workers:1}") int parallelWorkers,
+            @Value("${app.pdf.processing.max-in-flight-batches:4}") int maxInFlightBatches,
+            @Value("${app.pdf.processing.pipeline.queue-capacity:4}") int pipelineQueueCapacity,
+            @Value("${app.pdf.processing.pipeline.enrich-workers:2}") int pipelineEnrichWorkers,
+            @Value("${app.pdf.processing.pipeline.store-workers:2}") int pipelineStoreWorkers,
+            @Value("${app.pdf.watch.directory:}") String watchDirectory,
+            @Value("${app.pdf.processing.dedup.enabled:true}") boolean dedupEnabled,
+            @Value("${app.pdf.processing.dedup.max-hamming-distance:3}") int dedupMaxDistance,
+            @Value("${app.pdf.processing.boilerplate.min-repeats:4}") int boilerplateMinRepeats,
+            @Value("${app.pdf.processing.boilerplate.min-page-ratio:0.5}") double boilerplateMinPageRatio,
+            @Value("${app.pdf.processing.boilerplate.warmup-pages:16}") int boilerplateWarmupPages) {
         this.vectorStore = vectorStore;
         this.resourceLoader = resourceLoader;
+        this.manifestService = manifestService;
+        this.checkpointService = checkpointService;
+        this.lexicalSearch = lexicalSearch;
+        this.eventPublisher = eventPublisher;
         this.chunkSize = chunkSize;
         this.chunkOverlap = chunkOverlap;
         this.batchSize = batchSize;
+        this.maxBatchTokens = maxBatchTokens;
+        this.pagesPerWindow = pagesPerWindow;
+        this.parallelWorkers = Math.max(1, parallelWorkers);
+        this.embeddingPermits = new Semaphore(Math.max(1, maxInFlightBatches), true);
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+        this.pipelineEnrichWorkers = pipelineEnrichWorkers;
+        this.pipelineStoreWorkers = pipelineStoreWorkers;
+        this.boilerplateMinRepeats = boilerplateMinRepeats;
+        this.boilerplateMinPageRatio = boilerplateMinPageRatio;
+        this.boilerplateWarmupPages = boilerplateWarmupPages;
+        // Stripping and the page window's carried tail change chunk text, so their settings
+        // are part of what makes chunks reusable
+        this.pipelineFingerprint = String.format("chunk=%d/%d;window=%d;schema=%d;boilerplate=%d/%s/%d", 
+                                                 chunkSize, chunkOverlap, pagesPerWindow, METADATA_SCHEMA_VERSION,
+                                                 boilerplateMinRepeats, boilerplateMinPageRatio, 
+                                                 boilerplateWarmupPages);
+        // Batch limits decide which chunks a batch ordinal covers, so a checkpoint only
+        // resumes under the same limits
+        this.checkpointFingerprint = String.format("%s;batch=%d/%d", pipelineFingerprint, batchSize, maxBatchTokens);
+        this.watchDirectory = watchDirectory.isBlank() ? null : Paths.get(watchDirectory);
+        this.nearDuplicateIndex = dedupEnabled ? new NearDuplicateIndex(dedupMaxDistance) : null;
     }
 
     /**
      * Processes all PDF documents found in the resources folder
      */
     public BulkProcessingResult processAllPdfDocuments() {
+        return processAllPdfDocuments(IngestionProgressListener.NONE);
+    }
+
+    /**
+     * Processes all PDF documents, reporting progress to the listener and stopping early
+     * once it reports cancellation
+     */
+    public BulkProcessingResult processAllPdfDocuments(IngestionProgressListener listener) {
         long startTime = System.currentTimeMillis();
         BulkProcessingResult result = new BulkProcessingResult();
 
@@ -71,24 +163,14 @@ public class PdfProcessingService {
                 logger.warn("No PDF documents found in resources folder");
                 return result;
             }
-
-            for (Resource pdfResource : pdfResources) {
-                try {
-                    logger.info("Processing document: {}", pdfResource.getFilename());
-                    ProcessingResult docResult = processPdfResource(pdfResource);
-                    
-                    if (docResult.isSuccessful()) {
-                        result.addSuccessfulDocument(pdfResource.getFilename(), docResult);
-                        logger.info("✅ Successfully processed: {} ({} chunks)", 
-                                   pdfResource.getFilename(), docResult.getChunksCreated());
-                    } else {
-                        result.addFailedDocument(pdfResource.getFilename(), docResult.getErrorMessage());
-                        logger.error("❌ Failed to process: {} - {}", 
-                                    pdfResource.getFilename(), docResult.getErrorMessage());
-                    }
-                } catch (Exception e) {
-                    result.addFailedDocument(pdfResource.getFilename(), e.getMessage());
-                    logger.error("❌ Exception processing: {} - {}", pdfResource.getFilename(), e.getMessage(), e);
+            listener.onDocumentsFound(Arrays.stream(pdfResources).map(Resource::getFilename).toList());
+            seedNearDuplicateIndex(pdfResources);
+
+            if (parallelWorkers > 1 && pdfResources.length > 1) {
+                processInParallel(pdfResources, result, listener);
+            } else {
+                for (Resource pdfResource : pdfResources) {
+                    processAndRecord(pdfResource, result, listener);
                 }
             }
 
@@ -106,97 +188,535 @@ public class PdfProcessingService {
         return result;
     }
 
+    /**
+     * Processes documents concurrently on a bounded worker pool. Embedding calls across
+     * all workers share the same in-flight permits, so the provider never sees more than
+     * max-in-flight-batches concurrent requests from a reload.
+     */
+    private void processInParallel(Resource[] pdfResources, BulkProcessingResult result, 
+                                   IngestionProgressListener listener) {
+        int workers = Math.min(parallelWorkers, pdfResources.length);
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-ingest-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        logger.info("Processing {} documents with {} parallel workers", pdfResources.length, workers);
+
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(pdfResources.length);
+            for (Resource pdfResource : pdfResources) {
+                futures.add(CompletableFuture.runAsync(() -> processAndRecord(pdfResource, result, listener), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void processAndRecord(Resource pdfResource, BulkProcessingResult result, 
+                                  IngestionProgressListener listener) {
+        if (listener.isCancelled()) {
+            result.addFailedDocument(pdfResource.getFilename(), "Cancelled before processing started");
+            return;
+        }
+
+        try {
+            logger.info("Processing document: {}", pdfResource.getFilename());
+            ProcessingResult docResult = processPdfResource(pdfResource, listener);
+
+            if (docResult.isSuccessful()) {
+                result.addSuccessfulDocument(pdfResource.getFilename(), docResult);
+                logger.info("✅ Successfully processed: {} ({} chunks, {}ms)", 
+                           pdfResource.getFilename(), docResult.getChunksCreated(), docResult.getProcessingTimeMs());
+            } else {
+                result.addFailedDocument(pdfResource.getFilename(), docResult.getErrorMessage());
+                logger.error("❌ Failed to process: {} - {}", 
+                            pdfResource.getFilename(), docResult.getErrorMessage());
+            }
+        } catch (Exception e) {
+            result.addFailedDocument(pdfResource.getFilename(), e.getMessage());
+            logger.error("❌ Exception processing: {} - {}", pdfResource.getFilename(), e.getMessage(), e);
+        }
+    }
+
     /**
      * Processes a single PDF resource
      */
     public ProcessingResult processPdfResource(Resource pdfResource) {
+        return processPdfResource(pdfResource, IngestionProgressListener.NONE);
+    }
+
+    public ProcessingResult processPdfResource(Resource pdfResource, IngestionProgressListener listener) {
+        return processPdfResource(pdfResource, listener, false);
+    }
+
+    /**
+     * With forceReingest the manifest is invalidated under the document lock first, so the
+     * document is ingested even though its file is unchanged
+     */
+    private ProcessingResult processPdfResource(Resource pdfResource, IngestionProgressListener listener,
+                                                boolean forceReingest) {
         long startTime = System.currentTimeMillis();
+        String filename = pdfResource.getFilename();
+        listener.onDocumentStarted(filename);
+
+        // A bulk reload and the folder watcher may pick up the same file at the same time
+        ReentrantLock lock = documentLocks.computeIfAbsent(filename, name -> new ReentrantLock());
+        Set<String> orphanedDependents = new LinkedHashSet<>();
+        lock.lock();
+        ProcessingResult result;
+        try {
+            if (forceReingest) {
+                manifestService.invalidate(filename);
+            }
+            result = ingestDocument(pdfResource, filename, listener, startTime, orphanedDependents);
+        } finally {
+            lock.unlock();
+        }
+        if (!result.isUnchanged()) {
+            eventPublisher.publishEvent(new KnowledgeBaseUpdatedEvent(filename));
+        }
+        listener.onDocumentFinished(filename, result);
+        reingestDependents(filename, orphanedDependents);
+        return result;
+    }
 
+    /**
+     * Documents that dropped chunks as near-duplicates of chunks this source no longer has
+     * are ingested again, so that content gets stored under their own name instead
+     */
+    private void reingestDependents(String source, Set<String> dependents) {
+        if (dependents.isEmpty()) {
+            return;
+        }
         try {
-            logger.info("Starting PDF processing for resource: {}", pdfResource.getFilename());
+            for (Resource resource : findAllPdfResources()) {
+                if (dependents.contains(resource.getFilename())) {
+                    logger.info("♻️ Re-ingesting {}: it dropped near-duplicates of chunks removed from {}", 
+                               resource.getFilename(), source);
+                    processPdfResource(resource, IngestionProgressListener.NONE, true);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not re-ingest documents depending on {}: {}", source, e.getMessage(), e);
+        }
+    }
 
-            PagePdfDocumentReader pdfReader = new PagePdfDocumentReader(pdfResource);
-            List<Document> documents = pdfReader.get();
-            logger.info("Read {} pages from PDF", documents.size());
+    /**
+     * Sources that dropped chunks as near-duplicates of this one: those recorded in their
+     * manifests, plus those recorded by ingestions in this process that may still be running
+     */
+    private Set<String> takeDuplicateDependents(String source) {
+        Set<String> dependents = new LinkedHashSet<>();
+        Set<String> recent = duplicateDependents.remove(source);
+        if (recent != null) {
+            dependents.addAll(recent);
+        }
+        try {
+            for (Resource resource : findAllPdfResources()) {
+                manifestService.find(resource.getFilename())
+                        .filter(manifest -> manifest.getDuplicateSources() != null 
+                                && manifest.getDuplicateSources().contains(source))
+                        .ifPresent(manifest -> dependents.add(manifest.getSource()));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not look up documents depending on {}: {}", source, e.getMessage());
+        }
+        dependents.remove(source);
+        return dependents;
+    }
 
-            TokenTextSplitter textSplitter = new TokenTextSplitter(chunkSize, chunkOverlap, 5, 10000, true);
-            List<Document> chunks = textSplitter.apply(documents);
-            logger.info("Created {} chunks from PDF content", chunks.size());
+    private ProcessingResult ingestDocument(Resource pdfResource, String filename, 
+                                            IngestionProgressListener listener, long startTime,
+                                            Set<String> orphanedDependents) {
+        try {
+            logger.info("Starting PDF processing for resource: {}", filename);
 
-            enhanceChunksWithMetadata(chunks, pdfResource.getFilename());
+            String fileHash = IngestionManifestService.hashResource(pdfResource);
+            Optional<IngestionManifest> previous = manifestService.find(filename);
 
-            int totalChunks = chunks.size();
-            int processedChunks = 0;
+            if (previous.isPresent() && previous.get().matches(fileHash, pipelineFingerprint)) {
+                long processingTime = System.currentTimeMillis() - startTime;
+                logger.info("⏭️ {} is unchanged since {}, skipping", filename, previous.get().getIngestedAt());
+                if (nearDuplicateIndex != null && previous.get().getChunkFingerprints() != null) {
+                    nearDuplicateIndex.replaceSource(filename, previous.get().getChunkFingerprints());
+                }
+                return new ProcessingResult(true, 0, previous.get().getChunkHashes().size(), 0, 0, 0, 0,
+                                            processingTime, null, true);
+            }
 
-            for (int i = 0; i < totalChunks; i += batchSize) {
-                int endIndex = Math.min(i + batchSize, totalChunks);
-                List<Document> batch = chunks.subList(i, endIndex);
+            // Batches committed by an interrupted run of the same file are kept and not re-embedded
+            IngestionCheckpointService.Tracker checkpoint = checkpointService.begin(filename, fileHash, checkpointFingerprint);
 
-                logger.debug("Processing batch {}-{} of {} chunks", i + 1, endIndex, totalChunks);
-                vectorStore.add(batch);
-                processedChunks += batch.size();
+            if (previous.isEmpty() && checkpoint.getResumeAfter() < 0) {
+                removeUntrackedPoints(filename);
             }
 
-            long processingTime = System.currentTimeMillis() - startTime;
-            logger.info("Successfully processed PDF. Total chunks: {}, Processing time: {}ms", 
-                       processedChunks, processingTime);
+            // Chunks stored under the same settings keep their id and content, so they can be skipped
+            Set<String> storedChunkIds = previous
+                    .filter(manifest -> pipelineFingerprint.equals(manifest.getPipelineFingerprint()))
+                    .map(manifest -> toChunkIds(filename, manifest.getChunkHashes()))
+                    .orElse(Set.of());
+
+            Set<String> chunkHashes = Collections.synchronizedSet(new LinkedHashSet<>());
+            Set<String> keptChunkIds = ConcurrentHashMap.newKeySet();
+            Set<String> duplicateSources = ConcurrentHashMap.newKeySet();
+            AtomicInteger chunksEmbedded = new AtomicInteger();
+            AtomicInteger duplicatesDropped = new AtomicInteger();
+            AtomicInteger duplicateTokens = new AtomicInteger();
+            if (nearDuplicateIndex != null) {
+                // The previous version of this document must not count as a duplicate of the new one
+                nearDuplicateIndex.removeSource(filename);
+            }
 
-            return new ProcessingResult(true, documents.size(), processedChunks, processingTime, null);
+            TokenTextSplitter textSplitter = new TokenTextSplitter(chunkSize, chunkOverlap, 5, 10000, true);
+            IngestionPipeline pipeline = new IngestionPipeline(filename, pipelineQueueCapacity,
+                    pipelineEnrichWorkers, pipelineStoreWorkers);
+
+            IngestionPipeline.PageSource pageSource = sink -> new PageWindowPdfReader(pdfResource, pagesPerWindow, 
+                            totalPages -> listener.onPageCount(filename, totalPages))
+                    .read(pages -> {
+                        checkNotCancelled(listener, filename);
+                        sink.accept(pages);
+                        listener.onPagesParsed(filename, 
+                                (Integer) pages.get(pages.size() - 1).getMetadata().get(ChunkMetadata.PAGE));
+                    });
+            RepeatedLineStripper boilerplateStripper = boilerplateMinRepeats > 0
+                    ? new RepeatedLineStripper(pageSource, boilerplateMinRepeats, boilerplateMinPageRatio,
+                                               boilerplateWarmupPages, tokenCountEstimator::estimate)
+                    : null;
+
+            IngestionPipeline.PipelineStats stats = pipeline.run(
+                    boilerplateStripper != null ? boilerplateStripper : pageSource,
+                    new WindowedChunker(textSplitter)
+                            .andThen(chunks -> {
+                                listener.onChunksCreated(filename, chunks.size());
+                                return assignChunkIds(chunks, filename, chunkHashes);
+                            }),
+                    new IngestionPipeline.BatchLimits(batchSize, maxBatchTokens, 
+                            chunk -> tokenCountEstimator.estimate(chunk.getText())),
+                    batch -> {
+                        // Of a batch committed by an earlier run, only the chunks it dropped may still need storing
+                        List<Document> chunks = checkpoint.isAlreadyCommitted(batch.getSequence())
+                                ? batch.getChunks().stream().filter(chunk -> checkpoint.wasDropped(chunk.getId())).toList()
+                                : batch.getChunks();
+                        enhanceChunksWithMetadata(chunks, filename);
+                    },
+                    batch -> {
+                        boolean resumed = checkpoint.isAlreadyCommitted(batch.getSequence());
+                        if (!resumed) {
+                            checkNotCancelled(listener, filename);
+                        }
+                        List<Document> pending = new ArrayList<>(batch.getChunks().size());
+                        for (Document chunk : batch.getChunks()) {
+                            boolean alreadyStored = resumed 
+                                    ? !checkpoint.wasDropped(chunk.getId()) 
+                                    : storedChunkIds.contains(chunk.getId());
+                            if (alreadyStored) {
+                                keepStoredChunk(filename, chunk, keptChunkIds);
+                            } else if (admitNewChunk(filename, chunk, keptChunkIds, duplicateSources)) {
+                                pending.add(chunk);
+                            } else {
+                                if (!keptChunkIds.contains(chunk.getId())) {
+                                    // Repeats of a kept chunk share its id and are stored through it
+                                    checkpoint.markDropped(chunk.getId());
+                                }
+                                duplicatesDropped.incrementAndGet();
+                                duplicateTokens.addAndGet(tokenCountEstimator.estimate(chunk.getText()));
+                            }
+                        }
+                        logger.debug("Storing batch {} of {} ({} new of {} chunks)", 
+                                    batch.getSequence(), filename, pending.size(), batch.getChunks().size());
+                        if (!pending.isEmpty()) {
+                            addBatchSplittingOnTokenLimit(pending);
+                            lexicalSearch.add(pending);
+                            chunksEmbedded.addAndGet(pending.size());
+                            pending.forEach(chunk -> checkpoint.markStored(chunk.getId()));
+                        }
+                        if (!resumed) {
+                            checkpoint.markCommitted(batch.getSequence());
+                        }
+                        listener.onBatchStored(filename, batch.getChunks().size(), pending.size());
+                    });
+
+            Set<String> keptHashes = new LinkedHashSet<>();
+            synchronized (chunkHashes) {
+                chunkHashes.stream()
+                        .filter(chunkHash -> keptChunkIds.contains(IngestionManifestService.chunkId(filename, chunkHash)))
+                        .forEach(keptHashes::add);
+            }
+            if (previous.isPresent() && removeStaleChunks(filename, previous.get(), keptHashes) > 0) {
+                orphanedDependents.addAll(takeDuplicateDependents(filename));
+            }
+            manifestService.save(new IngestionManifest(filename, fileHash, pipelineFingerprint, 
+                                                       new ArrayList<>(keptHashes), LocalDateTime.now(),
+                                                       nearDuplicateIndex != null 
+                                                               ? nearDuplicateIndex.fingerprintsOf(filename) 
+                                                               : List.of(),
+                                                       new ArrayList<>(duplicateSources)));
+            checkpoint.complete();
+            lexicalSearch.save();
+
+            long processingTime = System.currentTimeMillis() - startTime;
+            int boilerplateTokens = boilerplateStripper != null ? boilerplateStripper.getTokensRemoved() : 0;
+            logger.info("Successfully processed PDF. Pages: {}, Total chunks: {}, Newly embedded: {}, Near-duplicates dropped: {}, Boilerplate tokens removed: {}, Processing time: {}ms", 
+                       stats.getPagesRead(), stats.getChunksStored(), chunksEmbedded.get(), 
+                       duplicatesDropped.get(), boilerplateTokens, processingTime);
+
+            return new ProcessingResult(true, stats.getPagesRead(), stats.getChunksStored(), chunksEmbedded.get(), 
+                                        duplicatesDropped.get(), duplicateTokens.get(), boilerplateTokens,
+                                        processingTime, null, false);
+        } catch (CancellationException e) {
+            long processingTime = System.currentTimeMillis() - startTime;
+            logger.info("🛑 Processing of {} cancelled; committed batches are kept for the next run", filename);
+            return new ProcessingResult(false, 0, 0, 0, 0, 0, 0, processingTime, e.getMessage(), false);
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             logger.error("Error processing PDF: {}", e.getMessage(), e);
-            return new ProcessingResult(false, 0, 0, processingTime, e.getMessage());
+            return new ProcessingResult(false, 0, 0, 0, 0, 0, 0, processingTime, e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Decides whether a chunk that is not stored yet should be embedded. Repeats of a chunk
+     * already kept for this document and near-duplicates of chunks kept anywhere are dropped.
+     * Other sources a chunk is dropped in favour of are recorded, so this document can be
+     * ingested again if they lose the chunk.
+     */
+    private boolean admitNewChunk(String filename, Document chunk, Set<String> keptChunkIds, 
+                                  Set<String> duplicateSources) {
+        if (!keptChunkIds.add(chunk.getId())) {
+            return false;
+        }
+        String duplicateSource = nearDuplicateIndex != null ? nearDuplicateIndex.admit(filename, chunk.getText()) : null;
+        if (duplicateSource == null) {
+            return true;
+        }
+        keptChunkIds.remove(chunk.getId());
+        if (!duplicateSource.equals(filename)) {
+            duplicateSources.add(duplicateSource);
+            duplicateDependents.computeIfAbsent(duplicateSource, source -> ConcurrentHashMap.newKeySet()).add(filename);
         }
+        return false;
     }
 
     /**
-     * Finds all PDF resources in the classpath
+     * Chunks already in the vector store stay there and take part in later comparisons
+     */
+    private void keepStoredChunk(String filename, Document chunk, Set<String> keptChunkIds) {
+        if (keptChunkIds.add(chunk.getId()) && nearDuplicateIndex != null) {
+            nearDuplicateIndex.register(filename, chunk.getText());
+        }
+    }
+
+    /**
+     * Loads the fingerprints of every known document up front, so a changed document is
+     * compared against documents that have not been processed yet in this run
+     */
+    private void seedNearDuplicateIndex(Resource[] pdfResources) {
+        if (nearDuplicateIndex == null) {
+            return;
+        }
+        for (Resource pdfResource : pdfResources) {
+            manifestService.find(pdfResource.getFilename())
+                    .filter(manifest -> manifest.getChunkFingerprints() != null)
+                    .ifPresent(manifest -> nearDuplicateIndex.replaceSource(manifest.getSource(), 
+                                                                            manifest.getChunkFingerprints()));
+        }
+    }
+
+    private void checkNotCancelled(IngestionProgressListener listener, String filename) {
+        if (listener.isCancelled()) {
+            throw new CancellationException("Ingestion of " + filename + " was cancelled");
+        }
+    }
+
+    /**
+     * Replaces the splitter's random ids with ids derived from (source, chunk hash), so
+     * storing the same chunk again overwrites the existing point instead of duplicating it
+     */
+    private List<Document> assignChunkIds(List<Document> chunks, String filename, Set<String> chunkHashes) {
+        List<Document> identified = new ArrayList<>(chunks.size());
+        for (Document chunk : chunks) {
+            String chunkHash = IngestionManifestService.hashText(chunk.getText());
+            chunkHashes.add(chunkHash);
+            identified.add(Document.builder()
+                    .id(IngestionManifestService.chunkId(filename, chunkHash))
+                    .text(chunk.getText())
+                    .metadata(chunk.getMetadata())
+                    .build());
+        }
+        return identified;
+    }
+
+    private Set<String> toChunkIds(String filename, List<String> chunkHashes) {
+        Set<String> ids = new HashSet<>(chunkHashes.size());
+        for (String chunkHash : chunkHashes) {
+            ids.add(IngestionManifestService.chunkId(filename, chunkHash));
+        }
+        return ids;
+    }
+
+    /**
+     * Deletes points of chunks that existed in the previous version of a document but not in
+     * this one, returning how many were deleted
+     */
+    private int removeStaleChunks(String filename, IngestionManifest previous, Set<String> currentHashes) {
+        List<String> staleIds = previous.getChunkHashes().stream()
+                .filter(chunkHash -> !currentHashes.contains(chunkHash))
+                .map(chunkHash -> IngestionManifestService.chunkId(filename, chunkHash))
+                .toList();
+
+        if (!staleIds.isEmpty()) {
+            logger.info("Removing {} stale chunks of {}", staleIds.size(), filename);
+            vectorStore.delete(staleIds);
+            lexicalSearch.remove(staleIds);
+        }
+        return staleIds.size();
+    }
+
+    /**
+     * Points stored before manifests existed have random ids and would otherwise stay
+     * behind as duplicates next to the deterministic ones
+     */
+    private void removeUntrackedPoints(String filename) {
+        try {
+            vectorStore.delete(String.format("%s == '%s' || %s == '%s'", 
+                    ChunkMetadata.SOURCE, filename, ChunkMetadata.LEGACY_SOURCE, filename));
+            lexicalSearch.removeSource(filename);
+            logger.info("Removed untracked points of {} before first manifest-based ingestion", filename);
+        } catch (Exception e) {
+            logger.warn("Could not remove untracked points of {}: {}", filename, e.getMessage());
+        }
+    }
+
+    /**
+     * Batches are sized by token count up front, but the estimate can still fall short of
+     * the provider's own count. A batch rejected for its size is halved and retried until
+     * the halves fit; a single chunk that is too large is a real failure.
+     */
+    private void addBatchSplittingOnTokenLimit(List<Document> batch) throws InterruptedException {
+        try {
+            addBatch(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() < 2 || !isTokenLimitError(e)) {
+                throw e;
+            }
+            int middle = batch.size() / 2;
+            logger.warn("Batch of {} chunks exceeded the token limit, retrying as {} + {}", 
+                       batch.size(), middle, batch.size() - middle);
+            addBatchSplittingOnTokenLimit(batch.subList(0, middle));
+            addBatchSplittingOnTokenLimit(batch.subList(middle, batch.size()));
+        }
+    }
+
+    private boolean isTokenLimitError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message == null) {
+                continue;
+            }
+            String lower = message.toLowerCase();
+            if (lower.contains("maximum context length") 
+                    || lower.contains("max_tokens_per_request") 
+                    || lower.contains("tokens per request")
+                    || lower.contains("too many tokens")
+                    || lower.contains("maximum number of allowed input tokens")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Embeds and stores a batch once an in-flight permit is available
+     */
+    private void addBatch(List<Document> batch) throws InterruptedException {
+        embeddingPermits.acquire();
+        try {
+            vectorStore.add(batch);
+        } finally {
+            embeddingPermits.release();
+        }
+    }
+
+    /**
+     * Finds all PDF resources in the classpath and the watched folder. A file in the
+     * watched folder replaces a classpath PDF with the same name.
      */
     private Resource[] findAllPdfResources() throws IOException {
+        Map<String, Resource> resources = new LinkedHashMap<>();
         if (resourceLoader instanceof ResourcePatternResolver resolver) {
-            return resolver.getResources("classpath*:*.pdf");
+            for (Resource resource : resolver.getResources("classpath*:*.pdf")) {
+                resources.put(resource.getFilename(), resource);
+            }
         } else {
-            logger.warn("ResourceLoader does not support pattern resolution, falling back to empty array");
-            return new Resource[0];
+            logger.warn("ResourceLoader does not support pattern resolution, skipping classpath PDFs");
+        }
+
+        if (watchDirectory != null && Files.isDirectory(watchDirectory)) {
+            try (Stream<Path> files = Files.list(watchDirectory)) {
+                files.filter(PdfProcessingService::isPdfFile)
+                     .sorted()
+                     .forEach(file -> resources.put(file.getFileName().toString(), new FileSystemResource(file)));
+            }
         }
+        return resources.values().toArray(new Resource[0]);
+    }
+
+    static boolean isPdfFile(Path file) {
+        return Files.isRegularFile(file) && file.getFileName().toString().toLowerCase().endsWith(".pdf");
     }
 
     /**
-     * Enhances document chunks with comprehensive metadata
+     * Adds the compact payload fields described in ChunkMetadata. Chunk indexes and page
+     * numbers are assigned upstream by the pipeline so batches can be enriched concurrently.
      */
     private void enhanceChunksWithMetadata(List<Document> chunks, String filename) {
         String detectedLanguage = detectPrimaryLanguageFromFilename(filename);
         
-        for (int i = 0; i < chunks.size(); i++) {
-            Document chunk = chunks.get(i);
+        for (Document chunk : chunks) {
             Map<String, Object> metadata = chunk.getMetadata();
             String content = chunk.getText();
 
-            // Basic metadata
-            metadata.put("source", filename);
-            metadata.put("chunk_index", i);
-            metadata.put("total_chunks", chunks.size());
+            metadata.put(ChunkMetadata.SOURCE, filename);
             
             // Language detection
             String contentLanguage = detectLanguageFromContent(content);
-            metadata.put("primary_language", detectedLanguage);
-            metadata.put("detected_language", contentLanguage);
-            metadata.put("content_type", "programming_documentation");
+            metadata.put(ChunkMetadata.LANGUAGE, detectedLanguage);
+            if (!contentLanguage.equals(detectedLanguage) && !"general".equals(contentLanguage)) {
+                metadata.put(ChunkMetadata.DETECTED_LANGUAGE, contentLanguage);
+            }
             
             // Content analysis
-            metadata.put("content_length", content.length());
-            metadata.put("has_code_examples", containsCodeExamples(content));
-            metadata.put("content_preview", content.length() > 150 ? 
-                        content.substring(0, 150) + "..." : content);
-                        
-            // Document categorization
-            metadata.put("document_category", categorizeDocument(filename, content));
+            CodeSignalScanner.CodeSignals codeSignals = CodeSignalScanner.scan(content);
+            metadata.put(ChunkMetadata.HAS_CODE, codeSignals.hasCode());
+            metadata.put(ChunkMetadata.CODE_DENSITY, Math.round(codeSignals.density() * 1000) / 1000.0);
+            metadata.put(ChunkMetadata.CATEGORY, categorizeDocument(filename, content));
             
             logger.debug("Enhanced chunk {} with language: {} (detected: {})", 
-                        i, detectedLanguage, contentLanguage);
+                        metadata.get(ChunkMetadata.CHUNK_INDEX), detectedLanguage, contentLanguage);
         }
     }
 
+    private static Map<String, List<String>> languageKeywords() {
+        Map<String, List<String>> keywords = new LinkedHashMap<>();
+        keywords.put("kotlin", List.of("fun", "val", "var", "class", "object", "interface", "when", "sealed", "data class", "suspend"));
+        keywords.put("java", List.of("public", "private", "protected", "static", "final", "class", "interface", "extends", "implements", "package"));
+        keywords.put("python", List.of("def", "class", "import", "from", "if __name__", "self", "print", "lambda", "yield"));
+        keywords.put("javascript", List.of("function", "const", "let", "var", "=>", "async", "await", "console.log", "require", "module.exports"));
+        keywords.put("typescript", List.of("interface", "type", "enum", "namespace", "declare", "readonly", "public", "private", "protected"));
+        keywords.put("csharp", List.of("public", "private", "protected", "static", "readonly", "namespace", "using", "class", "interface", "struct"));
+        keywords.put("cpp", List.of("#include", "namespace", "std::", "public:", "private:", "protected:", "class", "struct", "template", "virtual"));
+        keywords.put("rust", List.of("fn", "let", "mut", "pub", "struct", "enum", "impl", "trait", "use", "mod", "match"));
+        keywords.put("go", List.of("func", "package", "import", "var", "const", "type", "struct", "interface", "go", "defer", "chan"));
+        keywords.put("swift", List.of("func", "var", "let", "class", "struct", "enum", "protocol", "extension", "import", "public", "private"));
+        return Collections.unmodifiableMap(keywords);
+    }
+
     /**
      * Detects programming language from filename
      */
@@ -205,12 +725,16 @@ public class PdfProcessingService {
         
         String lower = filename.toLowerCase();
         
-        // Check for explicit language mentions in filename
-        for (String language : LANGUAGE_PATTERNS.keySet()) {
-            if (lower.contains(language)) {
-                return language;
+        // Check for explicit language mentions in filename; the longest wins, so javascript is not read as java
+        String mentioned = null;
+        for (String language : LANGUAGE_KEYWORDS.keySet()) {
+            if (lower.contains(language) && (mentioned == null || language.length() > mentioned.length())) {
+                mentioned = language;
             }
         }
+        if (mentioned != null) {
+            return mentioned;
+        }
         
         if (lower.contains("android") || lower.contains("kotlin")) return "kotlin";
         if (lower.contains("spring") || lower.contains("java")) return "java";
@@ -227,41 +751,10 @@ public class PdfProcessingService {
     }
 
     private String detectLanguageFromContent(String content) {
-        if (content == null || content.trim().isEmpty()) {
+        if (content == null || content.isBlank()) {
             return "general";
         }
-
-        Map<String, Integer> languageScores = new java.util.HashMap<>();
-        
-        for (Map.Entry<String, Pattern> entry : LANGUAGE_PATTERNS.entrySet()) {
-            String language = entry.getKey();
-            Pattern pattern = entry.getValue();
-            
-            java.util.regex.Matcher matcher = pattern.matcher(content);
-            int matches = 0;
-            while (matcher.find()) {
-                matches++;
-            }
-            languageScores.put(language, matches);
-        }
-
-        return languageScores.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .filter(entry -> entry.getValue() > 0)
-                .map(Map.Entry::getKey)
-                .orElse("general");
-    }
-
-
-    private boolean containsCodeExamples(String content) {
-        return content.contains("```") || 
-               content.contains("    ") || 
-               content.matches(".*\\{[\\s\\S]*\\}.*") ||
-               content.matches(".*\\([\\s\\S]*\\)\\s*\\{.*") || 
-               content.contains("public static void main") ||
-               content.contains("function ") ||
-               content.contains("def ") ||
-               content.contains("fun ");
+        return LANGUAGE_CLASSIFIER.classify(content, "general");
     }
 
     /**
@@ -293,14 +786,19 @@ public class PdfProcessingService {
         private final boolean successful;
         private final int documentsProcessed;
         private final int chunksCreated;
+        private final int chunksEmbedded;
+        private final int duplicatesDropped;
+        private final int duplicateTokensSaved;
+        private final int boilerplateTokensRemoved;
         private final long processingTimeMs;
         private final String errorMessage;
+        private final boolean unchanged;
     }
 
     @Getter
     public static class BulkProcessingResult {
-        private final Map<String, ProcessingResult> successfulDocuments = new java.util.HashMap<>();
-        private final Map<String, String> failedDocuments = new java.util.HashMap<>();
+        private final Map<String, ProcessingResult> successfulDocuments = new ConcurrentHashMap<>();
+        private final Map<String, String> failedDocuments = new ConcurrentHashMap<>();
         private long totalProcessingTimeMs;
 
         public void addSuccessfulDocument(String filename, ProcessingResult result) {
@@ -308,7 +806,7 @@ public class PdfProcessingService {
         }
 
         public void addFailedDocument(String filename, String error) {
-            failedDocuments.put(filename, error);
+            failedDocuments.put(filename, error != null ? error : "Unknown error");
         }
 
         public void setTotalProcessingTimeMs(long timeMs) {
@@ -323,12 +821,55 @@ public class PdfProcessingService {
             return failedDocuments.size();
         }
 
+        public int getUnchangedCount() {
+            return (int) successfulDocuments.values().stream()
+                    .filter(ProcessingResult::isUnchanged)
+                    .count();
+        }
+
+        public int getTotalChunksEmbedded() {
+            return successfulDocuments.values().stream()
+                    .mapToInt(ProcessingResult::getChunksEmbedded)
+                    .sum();
+        }
+
+        public int getTotalDuplicatesDropped() {
+            return successfulDocuments.values().stream()
+                    .mapToInt(ProcessingResult::getDuplicatesDropped)
+                    .sum();
+        }
+
+        /**
+         * Estimated embedding input tokens not paid for because of dropped near-duplicates
+         */
+        public int getTotalDuplicateTokensSaved() {
+            return successfulDocuments.values().stream()
+                    .mapToInt(ProcessingResult::getDuplicateTokensSaved)
+                    .sum();
+        }
+
+        public int getTotalBoilerplateTokensRemoved() {
+            return successfulDocuments.values().stream()
+                    .mapToInt(ProcessingResult::getBoilerplateTokensRemoved)
+                    .sum();
+        }
+
         public int getTotalChunks() {
             return successfulDocuments.values().stream()
                     .mapToInt(ProcessingResult::getChunksCreated)
                     .sum();
         }
 
+        /**
+         * Wall-clock lower bound for a parallel reload: the slowest single document
+         */
+        public long getLongestDocumentTimeMs() {
+            return successfulDocuments.values().stream()
+                    .mapToLong(ProcessingResult::getProcessingTimeMs)
+                    .max()
+                    .orElse(0);
+        }
+
         public boolean hasFailures() {
             return !failedDocuments.isEmpty();
         }
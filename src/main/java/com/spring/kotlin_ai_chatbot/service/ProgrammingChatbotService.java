@@ -1,7 +1,15 @@
 package com.spring.kotlin_ai_chatbot.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -10,8 +18,8 @@ import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -24,8 +32,34 @@ public class ProgrammingChatbotService {
     private static final Logger logger = LoggerFactory.getLogger(ProgrammingChatbotService.class);
 
     private final ChatModel chatModel;
-    private final VectorStore vectorStore;
+    private final KnowledgeBaseRetriever retriever;
+    private final TieredRetriever tieredRetriever;
+    private final LexicalSearchService lexicalSearch;
+    private final SemanticAnswerCache answerCache;
+    private final ExactAnswerCache exactCache;
     private final int maxContextDocuments;
+    private final int rrfK;
+    private final boolean mmrEnabled;
+    private final double mmrLambda;
+    private final int mmrFetchFactor;
+    private final double mmrDuplicateThreshold;
+
+    private static final String PRIMARY_TIER = "primary";
+    private static final String FALLBACK_TIER = "fallback";
+    private static final String KEYWORD_TIER = "keyword";
+
+    private static final List<String> CONTEXT_FIELDS = List.of(
+            ChunkMetadata.SOURCE, ChunkMetadata.LANGUAGE, ChunkMetadata.CATEGORY, ChunkMetadata.CHUNK_INDEX);
+
+    private static final Pattern LANGUAGE_MENTION = Pattern.compile(
+            "(?<![\\w#+])(kotlin|java|python|javascript|js|typescript|ts|c#|csharp|c\\+\\+|cpp|rust|golang|swift)(?![\\w#+])");
+
+    private static final Map<String, String> LANGUAGE_ALIASES = Map.of(
+            "js", "javascript",
+            "ts", "typescript",
+            "c#", "csharp",
+            "c++", "cpp",
+            "golang", "go");
 
     private static final String PROGRAMMING_EXPERT_PROMPT = """
             You are a highly knowledgeable programming expert and teacher specializing in multiple programming languages 
@@ -69,16 +103,56 @@ public class ProgrammingChatbotService {
             """;
 
     public ProgrammingChatbotService(ChatModel chatModel,
-            VectorStore vectorStore,
-            @Value("${app.chatbot.max-context-documents:5}") int maxContextDocuments) {
+            KnowledgeBaseRetriever retriever,
+            TieredRetriever tieredRetriever,
+            LexicalSearchService lexicalSearch,
+            SemanticAnswerCache answerCache,
+            ExactAnswerCache exactCache,
+            @Value("${app.chatbot.max-context-documents:5}") int maxContextDocuments,
+            @Value("${app.lexical.rrf-k:60}") int rrfK,
+            @Value("${app.chatbot.mmr.enabled:true}") boolean mmrEnabled,
+            @Value("${app.chatbot.mmr.lambda:0.7}") double mmrLambda,
+            @Value("${app.chatbot.mmr.fetch-factor:3}") int mmrFetchFactor,
+            @Value("${app.chatbot.mmr.duplicate-threshold:0.95}") double mmrDuplicateThreshold) {
         this.chatModel = chatModel;
-        this.vectorStore = vectorStore;
+        this.retriever = retriever;
+        this.tieredRetriever = tieredRetriever;
+        this.lexicalSearch = lexicalSearch;
+        this.answerCache = answerCache;
+        this.exactCache = exactCache;
         this.maxContextDocuments = maxContextDocuments;
+        this.rrfK = rrfK;
+        this.mmrEnabled = mmrEnabled;
+        this.mmrLambda = mmrLambda;
+        this.mmrFetchFactor = Math.max(1, mmrFetchFactor);
+        this.mmrDuplicateThreshold = mmrDuplicateThreshold;
         
         logger.info("ProgrammingChatbotService initialized with max context documents: {}", maxContextDocuments);
     }
 
     public ChatbotResponse askQuestion(String question) {
+        return askQuestion(question, false);
+    }
+
+    /**
+     * Answers a question, first from the exact answer cache, then from the answer to a
+     * near-identical earlier question in the semantic answer cache. Keyword queries skip
+     * the semantic cache, since the exact cache already covers them. bypassCache skips
+     * both lookups but still stores the fresh answer, replacing what later askers would get.
+     */
+    public ChatbotResponse askQuestion(String question, boolean bypassCache) {
+        if (!exactCache.isEnabled() || question == null || question.trim().isEmpty()) {
+            return answerQuestion(question, bypassCache);
+        }
+        if (bypassCache) {
+            ChatbotResponse response = answerQuestion(question, true);
+            exactCache.put(question, response);
+            return response;
+        }
+        return exactCache.get(question, () -> answerQuestion(question, false));
+    }
+
+    private ChatbotResponse answerQuestion(String question, boolean bypassCache) {
         long startTime = System.currentTimeMillis();
 
         try {
@@ -88,8 +162,27 @@ public class ProgrammingChatbotService {
                 return ChatbotResponse.error("Question cannot be empty");
             }
 
-            List<Document> relevantDocs = findRelevantDocuments(question);
-            logger.info("Found {} relevant documents", relevantDocs.size());
+            Set<String> mentionedLanguages = detectMentionedLanguages(question);
+            boolean keywordQuery = lexicalSearch.isKeywordQuery(question);
+            float[] questionVector = null;
+            long generation = 0;
+            Retrieval retrieval;
+            try (EmbeddingCaller.Scope caller = EmbeddingCaller.open("chatbot")) {
+                if (answerCache.isEnabled() && !keywordQuery) {
+                    generation = answerCache.generation();
+                    questionVector = answerCache.embed(question);
+                    if (!bypassCache) {
+                        Optional<SemanticAnswerCache.CachedAnswer> cached =
+                                answerCache.find(questionVector, mentionedLanguages, generation);
+                        if (cached.isPresent()) {
+                            return ChatbotResponse.cached(cached.get(), System.currentTimeMillis() - startTime);
+                        }
+                    }
+                }
+                retrieval = findRelevantDocuments(question, keywordQuery);
+            }
+            List<Document> relevantDocs = retrieval.documents();
+            logger.info("Found {} relevant documents by tier {}", relevantDocs.size(), retrieval.tiers());
 
             logFoundDocumentLanguages(relevantDocs);
 
@@ -109,7 +202,12 @@ public class ProgrammingChatbotService {
             logger.info("Generated response in {}ms with {} context documents, confidence: {}", 
                        responseTime, relevantDocs.size(), confidence);
 
-            return ChatbotResponse.success(answer, confidence, relevantDocs.size(), responseTime);
+            if (questionVector != null) {
+                answerCache.put(questionVector, mentionedLanguages, question, answer, confidence,
+                               relevantDocs, retrieval.tiers(), generation);
+            }
+
+            return ChatbotResponse.success(answer, confidence, relevantDocs.size(), retrieval.tiers(), responseTime);
 
         } catch (Exception e) {
             long responseTime = System.currentTimeMillis() - startTime;
@@ -118,41 +216,159 @@ public class ProgrammingChatbotService {
         }
     }
 
-    private List<Document> findRelevantDocuments(String question) {
+    /**
+     * Combines vector search with BM25 keyword search, which catches exact identifiers
+     * such as std::move that embeddings blur. Keyword queries, short identifier or
+     * rare-term queries, are answered by keyword search alone without embedding them,
+     * unless it finds nothing.
+     */
+    private Retrieval findRelevantDocuments(String question, boolean keywordQuery) {
         try {
-            SearchRequest searchRequest = SearchRequest
-                    .builder()
-                    .query(question)
-                    .topK(maxContextDocuments)
-                    .similarityThreshold(0.55)
-                    .build();
-
-            List<Document> documents = vectorStore.similaritySearch(searchRequest);
-            logger.debug("Vector search returned {} documents for query: {}", documents.size(), question);
-            
-            if (documents.size() < 2) {
-                logger.debug("Few results found, trying broader search...");
-                SearchRequest broaderRequest = SearchRequest
-                        .builder()
-                        .query(question)
-                        .topK(maxContextDocuments + 2)
-                        .similarityThreshold(0.4)
-                        .build();
-                documents = vectorStore.similaritySearch(broaderRequest);
-                logger.debug("Broader search returned {} documents", documents.size());
+            Set<String> languages = detectMentionedLanguages(question);
+            Set<String> allowedLanguages = null;
+            if (!languages.isEmpty()) {
+                allowedLanguages = new LinkedHashSet<>(languages);
+                allowedLanguages.add("general");
             }
-            
-            return documents;
+
+            if (keywordQuery) {
+                List<String> ids = lexicalSearch.search(question, maxContextDocuments, allowedLanguages).stream()
+                        .map(LexicalIndex.Hit::pointId)
+                        .toList();
+                List<Document> documents = retriever.fetch(ids, CONTEXT_FIELDS);
+                if (!documents.isEmpty()) {
+                    logger.debug("Keyword query answered by lexical search with {} documents: {}", 
+                                documents.size(), question);
+                    return new Retrieval(documents, Map.of(KEYWORD_TIER, documents.size()));
+                }
+            }
+
+            List<TieredRetriever.TieredChunk> candidates = findSimilarDocuments(question, languages);
+            Map<String, String> tierById = new HashMap<>();
+            candidates.forEach(candidate -> tierById.put(candidate.chunk().document().getId(), candidate.tier()));
+            boolean fellBack = candidates.stream().anyMatch(candidate -> FALLBACK_TIER.equals(candidate.tier()));
+            List<Document> vectorDocuments = diversify(
+                    candidates.stream().map(TieredRetriever.TieredChunk::chunk).toList(),
+                    fellBack ? maxContextDocuments + 2 : maxContextDocuments);
+
+            List<LexicalIndex.Hit> lexicalHits = lexicalSearch.search(question, maxContextDocuments * 2, allowedLanguages);
+            List<Document> documents = fuse(vectorDocuments, lexicalHits);
+
+            Map<String, Integer> tiers = new LinkedHashMap<>();
+            for (Document document : documents) {
+                tiers.merge(tierById.getOrDefault(document.getId(), KEYWORD_TIER), 1, Integer::sum);
+            }
+            return new Retrieval(documents, tiers);
         } catch (Exception e) {
             logger.warn("Error searching vector store (continuing without context): {}", e.getMessage());
-            return List.of();
+            return new Retrieval(List.of(), Map.of());
+        }
+    }
+
+    /**
+     * Prefers hits from the languages the question names, if any, at 0.55 similarity and
+     * falls back to the whole collection at 0.4 when that finds fewer than two. Both tiers
+     * come out of one batched search. With MMR enabled the tiers are over-fetched with their
+     * vectors, and diversify later keeps a subset of them.
+     */
+    private List<TieredRetriever.TieredChunk> findSimilarDocuments(String question, Set<String> languages) {
+        int fetchFactor = mmrEnabled ? mmrFetchFactor : 1;
+        Filter.Expression languageFilter = null;
+        if (!languages.isEmpty()) {
+            List<Object> allowed = new ArrayList<>(languages);
+            allowed.add("general");
+            languageFilter = new FilterExpressionBuilder().in(ChunkMetadata.LANGUAGE, allowed).build();
         }
+
+        List<TieredRetriever.Tier> tiers = List.of(
+                new TieredRetriever.Tier(PRIMARY_TIER, 0.55, languageFilter, maxContextDocuments * fetchFactor),
+                new TieredRetriever.Tier(FALLBACK_TIER, 0.4, null, (maxContextDocuments + 2) * fetchFactor));
+        List<TieredRetriever.TieredChunk> candidates = tieredRetriever.search(question, tiers, 2, CONTEXT_FIELDS, mmrEnabled);
+        logger.debug("Vector search returned {} documents for query: {} (languages: {})", 
+                    candidates.size(), question, languages);
+        return candidates;
+    }
+
+    /**
+     * Picks up to limit candidates by maximal marginal relevance, dropping near-copies of
+     * chunks already picked, so the prompt does not pay for the same passage twice
+     */
+    private List<Document> diversify(List<KnowledgeBaseRetriever.ScoredChunk> candidates, int limit) {
+        if (!mmrEnabled || candidates.size() <= 1) {
+            return candidates.stream().limit(limit).map(KnowledgeBaseRetriever.ScoredChunk::document).toList();
+        }
+        float[][] vectors = new float[candidates.size()][];
+        double[] relevance = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            vectors[i] = candidates.get(i).vector();
+            Double score = candidates.get(i).document().getScore();
+            relevance[i] = score != null ? score : 0;
+        }
+        List<Document> selected = MaximalMarginalRelevance
+                .select(vectors, relevance, limit, mmrLambda, mmrDuplicateThreshold).stream()
+                .map(index -> candidates.get(index).document())
+                .toList();
+        logger.debug("MMR kept {} of {} candidates", selected.size(), candidates.size());
+        return selected;
+    }
+
+    /**
+     * Reciprocal rank fusion: each list adds 1 / (rrfK + rank) to a chunk's score, so
+     * chunks ranked well by both searches come first without comparing BM25 scores to
+     * cosine similarities. Chunks only the keyword search found are loaded by id.
+     */
+    private List<Document> fuse(List<Document> vectorDocuments, List<LexicalIndex.Hit> lexicalHits) {
+        if (lexicalHits.isEmpty()) {
+            return vectorDocuments;
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        Map<String, Document> documentsById = new HashMap<>();
+        for (int rank = 0; rank < vectorDocuments.size(); rank++) {
+            Document document = vectorDocuments.get(rank);
+            documentsById.put(document.getId(), document);
+            scores.merge(document.getId(), 1.0 / (rrfK + rank + 1), Double::sum);
+        }
+        for (int rank = 0; rank < lexicalHits.size(); rank++) {
+            scores.merge(lexicalHits.get(rank).pointId(), 1.0 / (rrfK + rank + 1), Double::sum);
+        }
+
+        List<String> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(maxContextDocuments)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<String> missing = ranked.stream().filter(id -> !documentsById.containsKey(id)).toList();
+        try {
+            retriever.fetch(missing, CONTEXT_FIELDS).forEach(document -> documentsById.put(document.getId(), document));
+        } catch (IllegalStateException e) {
+            logger.warn("Could not load keyword search hits, using vector results only: {}", e.getMessage());
+        }
+
+        List<Document> fused = new ArrayList<>(ranked.size());
+        for (String id : ranked) {
+            Document document = documentsById.get(id);
+            if (document != null) {
+                fused.add(document.mutate().score(scores.get(id)).build());
+            }
+        }
+        logger.debug("Fused {} vector and {} keyword results into {} documents", 
+                    vectorDocuments.size(), lexicalHits.size(), fused.size());
+        return fused;
+    }
+
+    private Set<String> detectMentionedLanguages(String question) {
+        Set<String> languages = new LinkedHashSet<>();
+        Matcher matcher = LANGUAGE_MENTION.matcher(question.toLowerCase());
+        while (matcher.find()) {
+            languages.add(LANGUAGE_ALIASES.getOrDefault(matcher.group(1), matcher.group(1)));
+        }
+        return languages;
     }
 
     private void logFoundDocumentLanguages(List<Document> documents) {
         if (!documents.isEmpty() && logger.isDebugEnabled()) {
             Map<String, Long> languageCounts = documents.stream()
-                    .map(doc -> doc.getMetadata().getOrDefault("primary_language", "unknown").toString())
+                    .map(doc -> doc.getMetadata().getOrDefault(ChunkMetadata.LANGUAGE, "unknown").toString())
                     .collect(Collectors.groupingBy(lang -> lang, Collectors.counting()));
             
             logger.debug("Found documents by language: {}", languageCounts);
@@ -167,17 +383,17 @@ public class ProgrammingChatbotService {
 
                     StringBuilder contextEntry = new StringBuilder();
                     
-                    if (metadata.containsKey("source")) {
-                        contextEntry.append("Source: ").append(metadata.get("source")).append("\n");
+                    if (metadata.containsKey(ChunkMetadata.SOURCE)) {
+                        contextEntry.append("Source: ").append(metadata.get(ChunkMetadata.SOURCE)).append("\n");
                     }
-                    if (metadata.containsKey("primary_language")) {
-                        contextEntry.append("Language: ").append(metadata.get("primary_language")).append("\n");
+                    if (metadata.containsKey(ChunkMetadata.LANGUAGE)) {
+                        contextEntry.append("Language: ").append(metadata.get(ChunkMetadata.LANGUAGE)).append("\n");
                     }
-                    if (metadata.containsKey("document_category")) {
-                        contextEntry.append("Category: ").append(metadata.get("document_category")).append("\n");
+                    if (metadata.containsKey(ChunkMetadata.CATEGORY)) {
+                        contextEntry.append("Category: ").append(metadata.get(ChunkMetadata.CATEGORY)).append("\n");
                     }
-                    if (metadata.containsKey("chunk_index")) {
-                        contextEntry.append("Section: ").append(metadata.get("chunk_index")).append("\n");
+                    if (metadata.containsKey(ChunkMetadata.CHUNK_INDEX)) {
+                        contextEntry.append("Section: ").append(metadata.get(ChunkMetadata.CHUNK_INDEX)).append("\n");
                     }
                     
                     contextEntry.append("Content:\n").append(content).append("\n\n");
@@ -249,19 +465,39 @@ public class ProgrammingChatbotService {
         private final String answer;
         private final String confidence;
         private final int contextDocumentsCount;
+        private final Map<String, Integer> retrievalTiers;
         private final long responseTimeMs;
+        private final boolean cached;
         private final String errorMessage;
 
         public static ChatbotResponse success(String answer, String confidence,
-                int contextDocumentsCount, long responseTimeMs) {
-            return new ChatbotResponse(true, answer, confidence, contextDocumentsCount, responseTimeMs, null);
+                int contextDocumentsCount, Map<String, Integer> retrievalTiers, long responseTimeMs) {
+            return new ChatbotResponse(true, answer, confidence, contextDocumentsCount, retrievalTiers, 
+                                       responseTimeMs, false, null);
+        }
+
+        public static ChatbotResponse cached(SemanticAnswerCache.CachedAnswer cached, long responseTimeMs) {
+            return cached(cached.getAnswer(), cached.getConfidence(), cached.getContextDocumentsCount(),
+                          cached.getRetrievalTiers(), responseTimeMs);
+        }
+
+        public static ChatbotResponse cached(String answer, String confidence,
+                int contextDocumentsCount, Map<String, Integer> retrievalTiers, long responseTimeMs) {
+            return new ChatbotResponse(true, answer, confidence, contextDocumentsCount, retrievalTiers,
+                                       responseTimeMs, true, null);
         }
 
         public static ChatbotResponse error(String errorMessage) {
-            return new ChatbotResponse(false, null, null, 0, 0, errorMessage);
+            return new ChatbotResponse(false, null, null, 0, Map.of(), 0, false, errorMessage);
         }
     }
 
+    /**
+     * Context documents and how many of them each retrieval tier contributed
+     */
+    private record Retrieval(List<Document> documents, Map<String, Integer> tiers) {
+    }
+
     @Getter
     @AllArgsConstructor
     public static class KnowledgeBaseStats {
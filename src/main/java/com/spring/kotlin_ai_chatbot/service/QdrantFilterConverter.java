@@ -0,0 +1,142 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import static io.qdrant.client.ConditionFactory.filter;
+import static io.qdrant.client.ConditionFactory.match;
+import static io.qdrant.client.ConditionFactory.matchExceptKeywords;
+import static io.qdrant.client.ConditionFactory.matchExceptValues;
+import static io.qdrant.client.ConditionFactory.matchKeyword;
+import static io.qdrant.client.ConditionFactory.matchKeywords;
+import static io.qdrant.client.ConditionFactory.matchValues;
+import static io.qdrant.client.ConditionFactory.range;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import io.qdrant.client.grpc.Points.Condition;
+import io.qdrant.client.grpc.Points.Range;
+
+/**
+ * Translates Spring AI filter expressions into native Qdrant filters for searches that
+ * bypass QdrantVectorStore. Strings match as keywords, whole numbers and booleans match
+ * exactly and other numbers only through range comparisons.
+ */
+public final class QdrantFilterConverter {
+
+    private QdrantFilterConverter() {
+    }
+
+    public static io.qdrant.client.grpc.Points.Filter convert(Filter.Expression expression) {
+        return io.qdrant.client.grpc.Points.Filter.newBuilder().addMust(condition(expression)).build();
+    }
+
+    private static Condition condition(Filter.Operand operand) {
+        if (operand instanceof Filter.Group group) {
+            return condition(group.content());
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            throw new IllegalArgumentException("Unsupported filter operand: " + operand);
+        }
+
+        io.qdrant.client.grpc.Points.Filter.Builder nested = io.qdrant.client.grpc.Points.Filter.newBuilder();
+        switch (expression.type()) {
+            case AND -> {
+                nested.addMust(condition(expression.left()));
+                nested.addMust(condition(expression.right()));
+                return filter(nested.build());
+            }
+            case OR -> {
+                nested.addShould(condition(expression.left()));
+                nested.addShould(condition(expression.right()));
+                return filter(nested.build());
+            }
+            case NOT -> {
+                nested.addMustNot(condition(expression.left()));
+                return filter(nested.build());
+            }
+            case NE -> {
+                nested.addMustNot(equalTo(key(expression), value(expression)));
+                return filter(nested.build());
+            }
+            case EQ -> {
+                return equalTo(key(expression), value(expression));
+            }
+            case IN -> {
+                return in(key(expression), values(expression), false);
+            }
+            case NIN -> {
+                return in(key(expression), values(expression), true);
+            }
+            case GT -> {
+                return range(key(expression), Range.newBuilder().setGt(number(expression)).build());
+            }
+            case GTE -> {
+                return range(key(expression), Range.newBuilder().setGte(number(expression)).build());
+            }
+            case LT -> {
+                return range(key(expression), Range.newBuilder().setLt(number(expression)).build());
+            }
+            case LTE -> {
+                return range(key(expression), Range.newBuilder().setLte(number(expression)).build());
+            }
+            default -> throw new IllegalArgumentException("Unsupported filter operation: " + expression.type());
+        }
+    }
+
+    private static Condition equalTo(String key, Object value) {
+        if (value instanceof String text) {
+            return matchKeyword(key, text);
+        }
+        if (value instanceof Boolean flag) {
+            return match(key, flag);
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return match(key, ((Number) value).longValue());
+        }
+        if (value instanceof Number number) {
+            double exact = number.doubleValue();
+            return range(key, Range.newBuilder().setGte(exact).setLte(exact).build());
+        }
+        throw new IllegalArgumentException("Unsupported filter value for " + key + ": " + value);
+    }
+
+    private static Condition in(String key, List<?> values, boolean negate) {
+        if (!values.isEmpty() && values.stream().allMatch(value -> value instanceof Integer || value instanceof Long)) {
+            List<Long> numbers = values.stream().map(value -> ((Number) value).longValue()).toList();
+            return negate ? matchExceptValues(key, numbers) : matchValues(key, numbers);
+        }
+        List<String> keywords = new ArrayList<>(values.size());
+        for (Object value : values) {
+            keywords.add(String.valueOf(value));
+        }
+        return negate ? matchExceptKeywords(key, keywords) : matchKeywords(key, keywords);
+    }
+
+    private static String key(Filter.Expression expression) {
+        if (expression.left() instanceof Filter.Key key) {
+            // The text filter parser keeps quotes around keys that needed them
+            return key.key().replaceAll("^[\"']|[\"']$", "");
+        }
+        throw new IllegalArgumentException("Expected a key on the left of " + expression.type());
+    }
+
+    private static Object value(Filter.Expression expression) {
+        if (expression.right() instanceof Filter.Value value) {
+            return value.value();
+        }
+        throw new IllegalArgumentException("Expected a value on the right of " + expression.type());
+    }
+
+    private static List<?> values(Filter.Expression expression) {
+        Object value = value(expression);
+        return value instanceof List<?> list ? list : List.of(value);
+    }
+
+    private static double number(Filter.Expression expression) {
+        if (value(expression) instanceof Number number) {
+            return number.doubleValue();
+        }
+        throw new IllegalArgumentException("Range filter on " + key(expression) + " needs a number");
+    }
+}
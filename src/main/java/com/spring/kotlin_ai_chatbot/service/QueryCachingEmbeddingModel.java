@@ -0,0 +1,199 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches the embeddings of single query texts: the /ask question, quiz topics and fact
+ * prompts, which repeat across users and come from small fixed vocabularies. A lookup
+ * checks an in-process LRU bounded by the bytes its vectors take, then a Redis tier
+ * shared by every node, and only then calls the wrapped model. Batch requests, which
+ * come from ingestion, pass straight through.
+ *
+ * Entries are keyed by a 128-bit hash of (model, dimensions, text). Redis holds the
+ * vector as packed little-endian floats and expires it after the configured TTL.
+ * Hits and misses are counted per tier and per EmbeddingCaller.
+ */
+public class QueryCachingEmbeddingModel implements EmbeddingModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCachingEmbeddingModel.class);
+
+    private static final String KEY_PREFIX = "embedding:query:";
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final EmbeddingModel delegate;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final String keyScope;
+    private final long maxLocalBytes;
+    private final Duration redisTtl;
+    private final MeterRegistry meterRegistry;
+    private final LinkedHashMap<String, float[]> local = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long localBytes;
+
+    public QueryCachingEmbeddingModel(EmbeddingModel delegate, RedisTemplate<String, byte[]> redisTemplate,
+                                      String model, int dimensions, long maxLocalBytes, Duration redisTtl,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.keyScope = model + ":" + dimensions + ":";
+        this.maxLocalBytes = maxLocalBytes;
+        this.redisTtl = redisTtl;
+        this.meterRegistry = meterRegistry;
+
+        if (meterRegistry != null) {
+            Gauge.builder("embedding.query.cache.local.bytes", this, QueryCachingEmbeddingModel::localBytes)
+                    .description("Bytes held by the in-process query embedding cache")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        if (request.getInstructions().size() != 1) {
+            return delegate.call(request);
+        }
+        String text = request.getInstructions().get(0);
+        String key = key(text);
+        String caller = EmbeddingCaller.current();
+
+        float[] vector = getLocal(key);
+        if (vector != null) {
+            count(caller, "local");
+            return response(vector);
+        }
+
+        vector = getShared(key);
+        if (vector != null) {
+            putLocal(key, vector);
+            count(caller, "redis");
+            return response(vector);
+        }
+
+        count(caller, "miss");
+        EmbeddingResponse response = delegate.call(request);
+        vector = response.getResults().get(0).getOutput();
+        putLocal(key, vector);
+        putShared(key, vector);
+        return response;
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    private synchronized float[] getLocal(String key) {
+        return local.get(key);
+    }
+
+    private synchronized void putLocal(String key, float[] vector) {
+        float[] previous = local.put(key, vector);
+        if (previous != null) {
+            localBytes -= entryBytes(previous);
+        }
+        localBytes += entryBytes(vector);
+        Iterator<Map.Entry<String, float[]>> eldest = local.entrySet().iterator();
+        while (localBytes > maxLocalBytes && eldest.hasNext()) {
+            Map.Entry<String, float[]> entry = eldest.next();
+            localBytes -= entryBytes(entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    private synchronized long localBytes() {
+        return localBytes;
+    }
+
+    /**
+     * Redis problems are not worth failing a question over; they count as a miss
+     */
+    private float[] getShared(String key) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            byte[] packed = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (packed == null) {
+                return null;
+            }
+            float[] vector = new float[packed.length / Float.BYTES];
+            ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+            return vector;
+        } catch (Exception e) {
+            logger.debug("Could not read query embedding from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putShared(String key, float[] vector) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            ByteBuffer packed = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            packed.asFloatBuffer().put(vector);
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, packed.array(), redisTtl);
+        } catch (Exception e) {
+            logger.debug("Could not write query embedding to Redis: {}", e.getMessage());
+        }
+    }
+
+    private void count(String caller, String result) {
+        if (meterRegistry != null) {
+            Counter.builder("embedding.query.cache")
+                    .tag("caller", caller)
+                    .tag("result", result)
+                    .description("Query embedding lookups by caller and the tier that answered them")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        logger.debug("Query embedding for {}: {}", caller, result);
+    }
+
+    private String key(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(keyScope.getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long entryBytes(float[] vector) {
+        return (long) vector.length * Float.BYTES + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static EmbeddingResponse response(float[] vector) {
+        return new EmbeddingResponse(List.of(new Embedding(vector, 0)));
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -22,7 +22,7 @@ public class RandomFactsService {
     private static final Logger logger = LoggerFactory.getLogger(RandomFactsService.class);
 
     private final ChatModel chatModel;
-    private final VectorStore vectorStore;
+    private final KnowledgeBaseRetriever retriever;
     private final Random random;
     private final int maxContextDocuments;
 
@@ -65,10 +65,10 @@ public class RandomFactsService {
             """;
 
     public RandomFactsService(ChatModel chatModel,
-                            VectorStore vectorStore,
+                            KnowledgeBaseRetriever retriever,
                             @Value("${app.chatbot.max-context-documents:3}") int maxContextDocuments) {
         this.chatModel = chatModel;
-        this.vectorStore = vectorStore;
+        this.retriever = retriever;
         this.random = new Random();
         this.maxContextDocuments = maxContextDocuments;
         
@@ -138,9 +138,14 @@ public class RandomFactsService {
                     .query(searchQuery)
                     .topK(maxContextDocuments)
                     .similarityThreshold(0.4) 
+                    .filterExpression(new FilterExpressionBuilder()
+                            .in(ChunkMetadata.LANGUAGE, language, "general").build())
                     .build();
 
-            List<Document> docs = vectorStore.similaritySearch(request);
+            List<Document> docs;
+            try (EmbeddingCaller.Scope caller = EmbeddingCaller.open("facts")) {
+                docs = retriever.search(request, List.of());
+            }
             
             if (docs.isEmpty()) {
                 logger.debug("No context found for {} - {}, proceeding with general knowledge", 
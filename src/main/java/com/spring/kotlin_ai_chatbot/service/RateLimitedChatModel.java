@@ -0,0 +1,68 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Takes rate limit capacity for every chat completion before it reaches the provider.
+ * OpenAI counts the requested max_tokens against the token limit up front, so a call is
+ * charged its prompt plus that ceiling and refunded once the real usage is known.
+ */
+public class RateLimitedChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final OpenAiRateLimiter rateLimiter;
+    private final int defaultMaxTokens;
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+
+    public RateLimitedChatModel(ChatModel delegate, OpenAiRateLimiter rateLimiter, int defaultMaxTokens) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.defaultMaxTokens = defaultMaxTokens;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        int estimatedTokens = estimateTokens(prompt);
+        rateLimiter.acquire("chat", estimatedTokens);
+
+        ChatResponse response = delegate.call(prompt);
+        settle(estimatedTokens, response);
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        int estimatedTokens = estimateTokens(prompt);
+        rateLimiter.acquire("chat", estimatedTokens);
+        return delegate.stream(prompt);
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private int estimateTokens(Prompt prompt) {
+        ChatOptions options = prompt.getOptions() != null ? prompt.getOptions() : delegate.getDefaultOptions();
+        Integer maxTokens = options != null ? options.getMaxTokens() : null;
+        return tokenCountEstimator.estimate(prompt.getContents()) + (maxTokens != null ? maxTokens : defaultMaxTokens);
+    }
+
+    private void settle(int estimatedTokens, ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        if (usage != null && usage.getTotalTokens() != null) {
+            rateLimiter.settle(estimatedTokens, usage.getTotalTokens());
+        }
+    }
+}
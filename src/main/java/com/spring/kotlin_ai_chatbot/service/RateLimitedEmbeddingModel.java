@@ -0,0 +1,49 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+/**
+ * Takes rate limit capacity for every embedding request before it reaches the provider.
+ * Embedding calls are charged their input tokens only.
+ */
+public class RateLimitedEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final OpenAiRateLimiter rateLimiter;
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+
+    public RateLimitedEmbeddingModel(EmbeddingModel delegate, OpenAiRateLimiter rateLimiter) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        int estimatedTokens = request.getInstructions().stream()
+                .mapToInt(tokenCountEstimator::estimate)
+                .sum();
+        rateLimiter.acquire("embedding", estimatedTokens);
+
+        EmbeddingResponse response = delegate.call(request);
+        if (response.getMetadata() != null && response.getMetadata().getUsage() != null) {
+            Integer actualTokens = response.getMetadata().getUsage().getTotalTokens();
+            rateLimiter.settle(estimatedTokens, actualTokens != null ? actualTokens : 0);
+        }
+        return response;
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+}
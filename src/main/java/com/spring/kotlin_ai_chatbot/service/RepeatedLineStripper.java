@@ -0,0 +1,235 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.ai.document.Document;
+
+/**
+ * Removes running headers, footers, page numbers and copyright lines from pages before
+ * they are split. Only the first and last few lines of a page are candidates; a candidate
+ * is stripped once its normalized form (whitespace collapsed, and page numbers folded on
+ * lines shaped like a page number or a running footer) has been seen in the same zone on
+ * at least minPageRatio of the pages read so far, and on at least minRepeats pages.
+ *
+ * Pages arrive as a stream, so the first warmupPages pages are held back to learn from
+ * before anything is emitted. Because the threshold is a share of the pages read rather
+ * than a count, a line has to keep repeating to stay stripped: numbered headings and
+ * common code lines that recur now and then are stripped neither early nor late in a book.
+ */
+public class RepeatedLineStripper implements IngestionPipeline.PageSource {
+
+    private static final int ZONE_LINES = 3;
+
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern PAGE_NUMBER_ONLY = Pattern.compile(
+            "[\\p{Punct}\\s]*(?:page |p\\. ?)?\\d+(?: of \\d+)?[\\p{Punct}\\s]*");
+    private static final Pattern LEADING_NUMBER = Pattern.compile("\\d+ ?[|•·]? ([^\\d]+)");
+    private static final Pattern TRAILING_NUMBER = Pattern.compile("([^\\d]+?) ?[|•·]? \\d+");
+    private static final Set<String> NUMBERING_LABELS = Set.of(
+            "chapter", "part", "section", "listing", "figure", "fig.", "table", "example", "exercise",
+            "step", "appendix", "lesson", "unit", "module", "recipe", "item", "rule", "version");
+
+    private final IngestionPipeline.PageSource source;
+    private final int minRepeats;
+    private final double minPageRatio;
+    private final int warmupPages;
+    private final ToIntFunction<String> tokenCounter;
+    private final Map<String, Integer> zoneLineCounts = new HashMap<>();
+    private int pagesLearned;
+    private final AtomicInteger tokensRemoved = new AtomicInteger();
+    private final AtomicInteger linesRemoved = new AtomicInteger();
+
+    public RepeatedLineStripper(IngestionPipeline.PageSource source, int minRepeats, double minPageRatio,
+                                int warmupPages, ToIntFunction<String> tokenCounter) {
+        this.source = source;
+        this.minRepeats = Math.max(2, minRepeats);
+        this.minPageRatio = minPageRatio;
+        this.warmupPages = Math.max(this.minRepeats, warmupPages);
+        this.tokenCounter = tokenCounter;
+    }
+
+    @Override
+    public void read(IngestionPipeline.PageSink sink) throws Exception {
+        List<Document> warmup = new ArrayList<>();
+
+        source.read(pages -> {
+            pages.forEach(this::learn);
+            if (warmup.size() < warmupPages) {
+                warmup.addAll(pages);
+                if (warmup.size() >= warmupPages) {
+                    emit(sink, strip(warmup));
+                    warmup.clear();
+                }
+            } else {
+                emit(sink, strip(pages));
+            }
+        });
+
+        if (!warmup.isEmpty()) {
+            emit(sink, strip(warmup));
+        }
+    }
+
+    private static void emit(IngestionPipeline.PageSink sink, List<Document> pages) throws InterruptedException {
+        if (!pages.isEmpty()) {
+            sink.accept(pages);
+        }
+    }
+
+    public int getTokensRemoved() {
+        return tokensRemoved.get();
+    }
+
+    public int getLinesRemoved() {
+        return linesRemoved.get();
+    }
+
+    private void learn(Document page) {
+        pagesLearned++;
+        String[] lines = page.getText().split("\n", -1);
+        List<String> seen = new ArrayList<>();
+        forEachZoneLine(lines, index -> {
+            String normalized = normalize(lines[index]);
+            if (isCandidate(normalized) && !seen.contains(normalized)) {
+                seen.add(normalized);
+                zoneLineCounts.merge(normalized, 1, Integer::sum);
+            }
+        });
+    }
+
+    private List<Document> strip(List<Document> pages) {
+        List<Document> stripped = new ArrayList<>(pages.size());
+        for (Document page : pages) {
+            String[] lines = page.getText().split("\n", -1);
+            boolean[] remove = new boolean[lines.length];
+            int threshold = threshold();
+            forEachZoneLine(lines, index -> {
+                String normalized = normalize(lines[index]);
+                remove[index] = isCandidate(normalized) && zoneLineCounts.getOrDefault(normalized, 0) >= threshold;
+            });
+
+            StringBuilder kept = new StringBuilder(page.getText().length());
+            StringBuilder removed = new StringBuilder();
+            for (int i = 0; i < lines.length; i++) {
+                StringBuilder target = remove[i] ? removed : kept;
+                if (!target.isEmpty()) {
+                    target.append('\n');
+                }
+                target.append(lines[i]);
+            }
+
+            if (removed.isEmpty()) {
+                stripped.add(page);
+                continue;
+            }
+            linesRemoved.addAndGet(countLines(removed));
+            tokensRemoved.addAndGet(tokenCounter.applyAsInt(removed.toString()));
+            if (!kept.toString().isBlank()) {
+                stripped.add(new Document(kept.toString(), page.getMetadata()));
+            }
+        }
+        return stripped;
+    }
+
+    private int threshold() {
+        return Math.max(minRepeats, (int) Math.ceil(minPageRatio * pagesLearned));
+    }
+
+    /**
+     * Visits the first and last ZONE_LINES non-blank lines of a page, each once
+     */
+    private static void forEachZoneLine(String[] lines, IntConsumer visitor) {
+        List<Integer> nonBlank = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            if (!lines[i].isBlank()) {
+                nonBlank.add(i);
+            }
+        }
+        int count = nonBlank.size();
+        for (int i = 0; i < count; i++) {
+            if (i < ZONE_LINES || i >= count - ZONE_LINES) {
+                visitor.accept(nonBlank.get(i));
+            }
+        }
+    }
+
+    /**
+     * Lines of pure punctuation, such as a closing brace at the bottom of a code listing,
+     * repeat across pages without being boilerplate
+     */
+    private static boolean isCandidate(String normalized) {
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c == '#' || Character.isLetter(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapses whitespace and case. Digits are folded only where they are a page number,
+     * so that "Chapter 3" and "Listing 4-2" stay distinct while "Kotlin in Action 123"
+     * matches on every page.
+     */
+    static String normalize(String line) {
+        StringBuilder collapsed = new StringBuilder(line.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !collapsed.isEmpty();
+                continue;
+            }
+            if (pendingSpace) {
+                collapsed.append(' ');
+                pendingSpace = false;
+            }
+            collapsed.append(Character.toLowerCase(c));
+        }
+        String normalized = collapsed.toString();
+        return isPageNumberShaped(normalized) ? DIGITS.matcher(normalized).replaceAll("#") : normalized;
+    }
+
+    /**
+     * A bare page number ("12", "- 12 -", "page 12 of 300"), or a running title with a
+     * single page number at either end that is not the number of a chapter, listing or
+     * similar
+     */
+    private static boolean isPageNumberShaped(String normalized) {
+        if (PAGE_NUMBER_ONLY.matcher(normalized).matches()) {
+            return true;
+        }
+        Matcher leading = LEADING_NUMBER.matcher(normalized);
+        if (leading.matches()) {
+            String text = leading.group(1);
+            int end = text.indexOf(' ');
+            return !NUMBERING_LABELS.contains(end < 0 ? text : text.substring(0, end));
+        }
+        Matcher trailing = TRAILING_NUMBER.matcher(normalized);
+        if (trailing.matches()) {
+            String text = trailing.group(1);
+            return !NUMBERING_LABELS.contains(text.substring(text.lastIndexOf(' ') + 1));
+        }
+        return false;
+    }
+
+    private static int countLines(CharSequence text) {
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,49 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+
+/**
+ * A vector store held on this node that can be refilled wholesale from the Qdrant
+ * collection and searched with an already embedded query
+ */
+public interface ReplicaVectorStore extends VectorStore {
+
+    /**
+     * Whether the store holds a usable copy of the knowledge base
+     */
+    boolean isReady();
+
+    int size();
+
+    /**
+     * Searches with an already embedded query; the request's query text is ignored
+     */
+    List<Document> search(float[] queryVector, SearchRequest request);
+
+    /**
+     * Like search, but also returns each hit's stored vector, normalized
+     */
+    List<KnowledgeBaseRetriever.ScoredChunk> searchWithVectors(float[] queryVector, SearchRequest request);
+
+    /**
+     * Replaces the whole contents with the given points
+     */
+    void replaceAll(List<StoredPoint> points) throws IOException;
+
+    /**
+     * Persists pending changes, if the store keeps any in memory
+     */
+    void save() throws IOException;
+
+    /**
+     * A point copied from another store, with its vector already computed
+     */
+    record StoredPoint(String id, String text, Map<String, Object> metadata, float[] vector) {
+    }
+}
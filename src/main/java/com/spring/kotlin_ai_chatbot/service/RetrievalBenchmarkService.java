@@ -0,0 +1,244 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.WithPayloadSelectorFactory;
+import io.qdrant.client.grpc.Collections.CollectionInfo;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.WithPayloadSelector;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Measures latency and recall of the search settings against the live collection.
+ * Exact search over the original vectors is the ground truth; every variant reports
+ * recall@k against it. Collection-level settings (quantization type, m, on-disk
+ * storage) cannot change per request, so the result carries the collection's current
+ * configuration and runs under different configurations are compared side by side.
+ * When a local replica is loaded it is measured against the same ground truth.
+ */
+@Service
+public class RetrievalBenchmarkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetrievalBenchmarkService.class);
+
+    private static final List<String> DEFAULT_QUERIES = List.of(
+            "How do Kotlin coroutines handle cancellation?",
+            "Difference between an interface and an abstract class in Java",
+            "Python list comprehension with a condition",
+            "How does async await work in JavaScript?",
+            "TypeScript generic constraints",
+            "C# LINQ query syntax versus method syntax",
+            "Smart pointers and ownership in C++",
+            "Rust borrow checker and lifetimes",
+            "Goroutines and channels in Go",
+            "Optionals and unwrapping in Swift",
+            "Best practices for error handling",
+            "How to write unit tests");
+
+    private static final WithPayloadSelector NO_PAYLOAD = WithPayloadSelectorFactory.enable(false);
+
+    private final KnowledgeBaseRetriever retriever;
+    private final EmbeddingModel embeddingModel;
+    private final QdrantClient qdrantClient;
+    private final ObjectProvider<ReplicaVectorStore> replicaVectorStore;
+    private final String collectionName;
+    private final int[] hnswEfValues;
+    private final int repetitions;
+
+    public RetrievalBenchmarkService(KnowledgeBaseRetriever retriever,
+                                     EmbeddingModel embeddingModel,
+                                     QdrantClient qdrantClient,
+                                     ObjectProvider<ReplicaVectorStore> replicaVectorStore,
+                                     @Value("${spring.ai.vectorstore.qdrant.collection-name}") String collectionName,
+                                     @Value("${app.qdrant.benchmark.hnsw-ef-values:16,32,64,128,256}") int[] hnswEfValues,
+                                     @Value("${app.qdrant.benchmark.repetitions:3}") int repetitions) {
+        this.retriever = retriever;
+        this.embeddingModel = embeddingModel;
+        this.qdrantClient = qdrantClient;
+        this.replicaVectorStore = replicaVectorStore;
+        this.collectionName = collectionName;
+        this.hnswEfValues = hnswEfValues;
+        this.repetitions = Math.max(1, repetitions);
+    }
+
+    public BenchmarkResult run(List<String> queries, int topK) {
+        List<String> benchmarkQueries = queries == null || queries.isEmpty() ? DEFAULT_QUERIES : queries;
+        SearchRequest request = SearchRequest.builder().topK(topK).similarityThresholdAll().build();
+        logger.info("📏 Benchmarking retrieval on {} with {} queries, top {}",
+                   collectionName, benchmarkQueries.size(), topK);
+
+        // Embedding happens once up front so only the Qdrant round trip is timed
+        List<float[]> vectors = new ArrayList<>(benchmarkQueries.size());
+        try (EmbeddingCaller.Scope caller = EmbeddingCaller.open("benchmark")) {
+            for (String query : benchmarkQueries) {
+                vectors.add(embeddingModel.embed(query));
+            }
+        }
+
+        KnowledgeBaseRetriever.SearchTuning configured = retriever.getDefaultTuning();
+        KnowledgeBaseRetriever.SearchTuning groundTruth = new KnowledgeBaseRetriever.SearchTuning(
+                0, true, true, false, 1.0);
+        List<Set<String>> expected = new ArrayList<>(vectors.size());
+        for (float[] vector : vectors) {
+            expected.add(ids(retriever.searchPoints(vector, request, NO_PAYLOAD, groundTruth)));
+        }
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("exact", groundTruth));
+        variants.add(new Variant("configured", configured));
+        for (int ef : hnswEfValues) {
+            variants.add(new Variant("hnsw_ef=" + ef + " rescored",
+                    new KnowledgeBaseRetriever.SearchTuning(ef, false, false, true, configured.oversampling())));
+            variants.add(new Variant("hnsw_ef=" + ef + " quantized only",
+                    new KnowledgeBaseRetriever.SearchTuning(ef, false, false, false, 1.0)));
+            variants.add(new Variant("hnsw_ef=" + ef + " original vectors",
+                    new KnowledgeBaseRetriever.SearchTuning(ef, false, true, false, 1.0)));
+        }
+
+        List<VariantResult> results = new ArrayList<>(variants.size());
+        for (Variant variant : variants) {
+            results.add(measure(variant, vectors, expected, request));
+        }
+        ReplicaVectorStore replica = replicaVectorStore.getIfAvailable();
+        if (replica != null && replica.isReady()) {
+            results.add(measureReplica(replica, vectors, expected, request));
+        }
+
+        BenchmarkResult result = new BenchmarkResult(collectionName, describeCollection(),
+                benchmarkQueries.size(), topK, repetitions, results);
+        results.forEach(variant -> logger.info("  {}: recall@{} {} | p50 {}ms | p95 {}ms", variant.getVariant(),
+                topK, variant.getRecall(), variant.getP50Ms(), variant.getP95Ms()));
+        return result;
+    }
+
+    private VariantResult measure(Variant variant, List<float[]> vectors, List<Set<String>> expected,
+                                  SearchRequest request) {
+        long[] latencies = new long[vectors.size() * repetitions];
+        double recallSum = 0;
+        int sample = 0;
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            for (int i = 0; i < vectors.size(); i++) {
+                long start = System.nanoTime();
+                List<ScoredPoint> points = retriever.searchPoints(vectors.get(i), request, NO_PAYLOAD, variant.tuning());
+                latencies[sample++] = System.nanoTime() - start;
+                if (repetition == 0) {
+                    recallSum += recall(expected.get(i), ids(points));
+                }
+            }
+        }
+
+        Arrays.sort(latencies);
+        double meanMs = Arrays.stream(latencies).average().orElse(0) / 1e6;
+        return new VariantResult(variant.name(), variant.tuning().hnswEf(), variant.tuning().exact(),
+                variant.tuning().ignoreQuantization(), variant.tuning().rescore(),
+                round(recallSum / vectors.size()), round(percentileMs(latencies, 0.50)),
+                round(percentileMs(latencies, 0.95)), round(meanMs));
+    }
+
+    private VariantResult measureReplica(ReplicaVectorStore replica, List<float[]> vectors,
+                                         List<Set<String>> expected, SearchRequest request) {
+        long[] latencies = new long[vectors.size() * repetitions];
+        double recallSum = 0;
+        int sample = 0;
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            for (int i = 0; i < vectors.size(); i++) {
+                long start = System.nanoTime();
+                List<Document> documents = replica.search(vectors.get(i), request);
+                latencies[sample++] = System.nanoTime() - start;
+                if (repetition == 0) {
+                    Set<String> ids = new HashSet<>(documents.size());
+                    documents.forEach(document -> ids.add(document.getId()));
+                    recallSum += recall(expected.get(i), ids);
+                }
+            }
+        }
+
+        Arrays.sort(latencies);
+        double meanMs = Arrays.stream(latencies).average().orElse(0) / 1e6;
+        boolean exact = replica instanceof MappedFlatVectorStore;
+        return new VariantResult("local " + replica.getName() + " (" + replica.size() + " points)", 0, exact,
+                true, false, round(recallSum / vectors.size()), round(percentileMs(latencies, 0.50)),
+                round(percentileMs(latencies, 0.95)), round(meanMs));
+    }
+
+    private static double recall(Set<String> expected, Set<String> actual) {
+        if (expected.isEmpty()) {
+            return 1.0;
+        }
+        long found = actual.stream().filter(expected::contains).count();
+        return (double) found / expected.size();
+    }
+
+    private static Set<String> ids(List<ScoredPoint> points) {
+        Set<String> ids = new HashSet<>(points.size());
+        points.forEach(point -> ids.add(point.getId().getUuid()));
+        return ids;
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1e6;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private String describeCollection() {
+        try {
+            CollectionInfo info = qdrantClient.getCollectionInfoAsync(collectionName).get(30, TimeUnit.SECONDS);
+            return String.format("points=%d, segments=%d, quantization=%s, m=%d, ef_construct=%d, on_disk=%s",
+                    info.getPointsCount(), info.getSegmentsCount(),
+                    info.getConfig().getQuantizationConfig().getQuantizationCase(),
+                    info.getConfig().getHnswConfig().getM(), info.getConfig().getHnswConfig().getEfConstruct(),
+                    info.getConfig().getParams().getVectorsConfig().getParams().getOnDisk());
+        } catch (Exception e) {
+            logger.warn("Could not read configuration of {}: {}", collectionName, e.getMessage());
+            return "unknown";
+        }
+    }
+
+    private record Variant(String name, KnowledgeBaseRetriever.SearchTuning tuning) {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BenchmarkResult {
+        private final String collection;
+        private final String collectionConfig;
+        private final int queries;
+        private final int topK;
+        private final int repetitions;
+        private final List<VariantResult> variants;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class VariantResult {
+        private final String variant;
+        private final int hnswEf;
+        private final boolean exact;
+        private final boolean ignoreQuantization;
+        private final boolean rescore;
+        private final double recall;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double meanMs;
+    }
+}
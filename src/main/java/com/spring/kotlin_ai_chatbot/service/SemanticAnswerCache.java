@@ -0,0 +1,237 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Answers paraphrased questions from earlier answers. Each entry keeps the question's
+ * embedding, the answer and the sources of the context documents it was built from;
+ * a new question reuses the closest entry above the similarity threshold. Entries only
+ * match questions that name the same languages, since "sealed classes in Kotlin" and
+ * "sealed classes in Java" embed almost alike but need different answers.
+ *
+ * Entries expire after the TTL. Each is stamped with the knowledge base generation the
+ * exact answer cache keeps in Redis, and one from an older generation is a miss, so
+ * ingestion on any node retires it. Ingestion on this node also drops entries that drew
+ * context from the document, plus answers built without any context, right away.
+ */
+@Service
+public class SemanticAnswerCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+    private final EmbeddingModel embeddingModel;
+    private final ExactAnswerCache exactCache;
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final List<Entry> entries = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SemanticAnswerCache(EmbeddingModel embeddingModel,
+                               ExactAnswerCache exactCache,
+                               @Value("${app.chatbot.answer-cache.enabled:true}") boolean enabled,
+                               @Value("${app.chatbot.answer-cache.similarity-threshold:0.93}") double similarityThreshold,
+                               @Value("${app.chatbot.answer-cache.ttl:6h}") Duration ttl,
+                               @Value("${app.chatbot.answer-cache.max-entries:1000}") int maxEntries) {
+        this.embeddingModel = embeddingModel;
+        this.exactCache = exactCache;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Embeds a question for find and put. Retrieval embeds the same text right after, which
+     * the query embedding cache then answers from memory.
+     */
+    public float[] embed(String question) {
+        return normalize(embeddingModel.embed(question));
+    }
+
+    /**
+     * The knowledge base generation to pass to find and put. Read it before retrieval, so
+     * an answer built while another node ingests is stamped with the older generation.
+     */
+    public long generation() {
+        try {
+            return Long.parseLong(exactCache.generation());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the cached answer whose question is most similar to this one, if any is at
+     * or above the threshold, names the same languages and is of the given generation
+     */
+    public Optional<CachedAnswer> find(float[] questionVector, Set<String> languages, long generation) {
+        Instant now = Instant.now();
+        Entry best = null;
+        double bestSimilarity = similarityThreshold;
+        lock.readLock().lock();
+        try {
+            for (Entry entry : entries) {
+                if (entry.expiresAt.isBefore(now) || entry.generation != generation
+                        || !entry.languages.equals(languages)) {
+                    continue;
+                }
+                double similarity = dot(questionVector, entry.vector);
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = entry;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (best == null) {
+            return Optional.empty();
+        }
+        logger.info("💾 Answer cache hit at similarity {} for a question like: {}",
+                   String.format("%.3f", bestSimilarity), best.answer.getQuestion());
+        return Optional.of(best.answer);
+    }
+
+    /**
+     * Stores an answer built under the given generation. If the knowledge base moved on
+     * while it was being built, the answer is already stale and is not stored; otherwise
+     * it replaces entries of older generations.
+     */
+    public void put(float[] questionVector, Set<String> languages, String question, String answer, String confidence,
+                    List<Document> contextDocuments, Map<String, Integer> retrievalTiers, long generation) {
+        if (generation() > generation) {
+            logger.debug("Not caching an answer built before the knowledge base was updated: {}", question);
+            return;
+        }
+        Set<String> sources = new TreeSet<>();
+        for (Document document : contextDocuments) {
+            Object source = document.getMetadata().get(ChunkMetadata.SOURCE);
+            if (source != null) {
+                sources.add(source.toString());
+            }
+        }
+        CachedAnswer cached = new CachedAnswer(question, answer, confidence, contextDocuments.size(), retrievalTiers);
+        Entry entry = new Entry(questionVector, Set.copyOf(languages), sources, generation, cached,
+                Instant.now().plus(ttl));
+
+        lock.writeLock().lock();
+        try {
+            if (entries.stream().anyMatch(existing -> existing.generation > generation)) {
+                return;
+            }
+            Instant now = Instant.now();
+            entries.removeIf(existing -> existing.expiresAt.isBefore(now) || existing.generation < generation);
+            if (entries.size() >= maxEntries) {
+                entries.remove(0);
+            }
+            entries.add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops answers that used the re-ingested document as context, plus answers that had
+     * no context at all
+     */
+    @EventListener
+    public void onKnowledgeBaseUpdated(KnowledgeBaseUpdatedEvent event) {
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.sources.isEmpty() || entry.sources.contains(event.source())) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (removed > 0) {
+            logger.info("Invalidated {} cached answers after {} was ingested", removed, event.source());
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        int length = Math.min(a.length, b.length);
+        float sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Entry(float[] vector, Set<String> languages, Set<String> sources, long generation,
+                         CachedAnswer answer, Instant expiresAt) {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedAnswer {
+        private final String question;
+        private final String answer;
+        private final String confidence;
+        private final int contextDocumentsCount;
+        private final Map<String, Integer> retrievalTiers;
+    }
+}
@@ -0,0 +1,83 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs a fallback chain of searches as one. Instead of searching again with a lower
+ * threshold or a wider filter when the strict search finds too little, which embeds
+ * the query and calls Qdrant a second time, it embeds the query once, sends every
+ * tier's search to Qdrant in a single batch call and sorts the hits into tiers locally.
+ */
+@Service
+public class TieredRetriever {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredRetriever.class);
+
+    private final KnowledgeBaseRetriever retriever;
+
+    public TieredRetriever(KnowledgeBaseRetriever retriever) {
+        this.retriever = retriever;
+    }
+
+    /**
+     * Searches every tier in one batch and takes hits tier by tier, skipping chunks an
+     * earlier tier already took. A later tier only adds hits while fewer than minResults
+     * were found, up to its own limit counted across all tiers so far.
+     */
+    public List<TieredChunk> search(String query, List<Tier> tiers, int minResults, List<String> metadataFields,
+                                    boolean withVectors) {
+        List<SearchRequest> requests = new ArrayList<>(tiers.size());
+        for (Tier tier : tiers) {
+            SearchRequest.Builder request = SearchRequest.builder()
+                    .query(query)
+                    .topK(tier.limit())
+                    .similarityThreshold(tier.minScore());
+            if (tier.filter() != null) {
+                request.filterExpression(tier.filter());
+            }
+            requests.add(request.build());
+        }
+        List<List<KnowledgeBaseRetriever.ScoredChunk>> hitsByTier =
+                retriever.searchBatch(query, requests, metadataFields, withVectors);
+
+        List<TieredChunk> selected = new ArrayList<>();
+        Set<String> taken = new HashSet<>();
+        int hitCount = 0;
+        for (int t = 0; t < tiers.size(); t++) {
+            if (!selected.isEmpty() && selected.size() >= minResults) {
+                break;
+            }
+            Tier tier = tiers.get(t);
+            List<KnowledgeBaseRetriever.ScoredChunk> hits = hitsByTier.get(t);
+            hitCount += hits.size();
+            for (int i = 0; i < hits.size() && selected.size() < tier.limit(); i++) {
+                KnowledgeBaseRetriever.ScoredChunk hit = hits.get(i);
+                if (taken.add(hit.document().getId())) {
+                    selected.add(new TieredChunk(hit, tier.name()));
+                }
+            }
+        }
+        logger.debug("One batch of {} searches returned {} hits, {} assigned to tiers",
+                    tiers.size(), hitCount, selected.size());
+        return selected;
+    }
+
+    /**
+     * One step of the fallback chain, searched with its own threshold, filter and limit.
+     * A null filter searches the whole collection.
+     */
+    public record Tier(String name, double minScore, Filter.Expression filter, int limit) {
+    }
+
+    public record TieredChunk(KnowledgeBaseRetriever.ScoredChunk chunk, String tier) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+
+/**
+ * Splits a stream of page windows into chunks as if the pages had been split in one go.
+ * The last chunk of each window usually ends at the window boundary rather than at a
+ * natural break, so it is held back and prepended to the next window's text. At most one
+ * chunk of text is carried at any time.
+ */
+public class WindowedChunker implements IngestionPipeline.ChunkSplitter {
+
+    private final TokenTextSplitter textSplitter;
+
+    private String carryText;
+    private Object carryStartPage;
+    private Object carryEndPage;
+
+    public WindowedChunker(TokenTextSplitter textSplitter) {
+        this.textSplitter = textSplitter;
+    }
+
+    @Override
+    public List<Document> split(List<Document> pages) {
+        if (pages.isEmpty()) {
+            return List.of();
+        }
+
+        Object startPage = carryText != null ? carryStartPage : pages.get(0).getMetadata().get(ChunkMetadata.PAGE);
+        Object endPage = pages.get(pages.size() - 1).getMetadata().get(ChunkMetadata.PAGE);
+
+        StringBuilder text = new StringBuilder();
+        if (carryText != null) {
+            text.append(carryText).append('\n');
+        }
+        for (Document page : pages) {
+            text.append(page.getText()).append('\n');
+        }
+
+        List<Document> chunks = splitWindow(text.toString(), startPage, endPage, pages.get(0).getMetadata());
+        if (chunks.isEmpty()) {
+            carryText = null;
+            return chunks;
+        }
+
+        Document tail = chunks.remove(chunks.size() - 1);
+        carryText = tail.getText();
+        carryStartPage = chunks.isEmpty() ? startPage : endPage;
+        carryEndPage = endPage;
+        return chunks;
+    }
+
+    @Override
+    public List<Document> flush() {
+        if (carryText == null) {
+            return List.of();
+        }
+        List<Document> chunks = splitWindow(carryText, carryStartPage, carryEndPage, Map.of());
+        carryText = null;
+        return chunks;
+    }
+
+    private List<Document> splitWindow(String text, Object startPage, Object endPage, Map<String, Object> baseMetadata) {
+        Map<String, Object> metadata = new HashMap<>(baseMetadata);
+        if (startPage != null) {
+            metadata.put(ChunkMetadata.PAGE, startPage);
+        }
+        if (endPage != null) {
+            metadata.put(ChunkMetadata.END_PAGE, endPage);
+        }
+        return new ArrayList<>(textSplitter.apply(List.of(new Document(text, metadata))));
+    }
+}
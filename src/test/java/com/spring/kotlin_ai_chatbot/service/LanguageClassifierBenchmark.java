@@ -0,0 +1,138 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * Compares the keyword automaton with the per-language regexes it replaced, on chunks cut
+ * from the bundled PDFs the way ingestion cuts them. Run with
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.spring.kotlin_ai_chatbot.service.LanguageClassifierBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LanguageClassifierBenchmark {
+
+    @Param("200")
+    public int chunksPerDocument;
+
+    private List<String> chunks;
+    private LanguageKeywordClassifier automaton;
+    private RegexLanguageClassifier regex;
+
+    @Setup
+    public void setUp() throws Exception {
+        chunks = new ArrayList<>();
+        Resource[] pdfs = new PathMatchingResourcePatternResolver().getResources("classpath*:*.pdf");
+        for (Resource pdf : pdfs) {
+            WindowedChunker chunker = new WindowedChunker(new TokenTextSplitter(800, 100, 5, 10000, true));
+            List<String> documentChunks = new ArrayList<>();
+            new PageWindowPdfReader(pdf, 8).read(pages -> {
+                if (documentChunks.size() < chunksPerDocument) {
+                    chunker.split(pages).forEach(chunk -> documentChunks.add(chunk.getText()));
+                }
+            });
+            chunker.flush().stream().map(Document::getText).forEach(documentChunks::add);
+            chunks.addAll(documentChunks.subList(0, Math.min(chunksPerDocument, documentChunks.size())));
+        }
+        if (chunks.isEmpty()) {
+            throw new IllegalStateException("No PDFs found on the classpath to cut chunks from");
+        }
+        automaton = new LanguageKeywordClassifier(PdfProcessingService.LANGUAGE_KEYWORDS);
+        regex = new RegexLanguageClassifier();
+    }
+
+    @Benchmark
+    public void automaton(Blackhole blackhole) {
+        for (String chunk : chunks) {
+            blackhole.consume(automaton.classify(chunk, "general"));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String chunk : chunks) {
+            blackhole.consume(regex.classify(chunk));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LanguageClassifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * The classifier as it was before the automaton: one alternation regex per language,
+     * each run over the whole chunk
+     */
+    static class RegexLanguageClassifier {
+
+        private static final Map<String, Pattern> LANGUAGE_PATTERNS = Map.of(
+            "kotlin", Pattern.compile("\\b(fun|val|var|class|object|interface|when|sealed|data class|suspend)\\b", Pattern.CASE_INSENSITIVE),
+            "java", Pattern.compile("\\b(public|private|protected|static|final|class|interface|extends|implements|package)\\b", Pattern.CASE_INSENSITIVE),
+            "python", Pattern.compile("\\b(def|class|import|from|if __name__|self|print|lambda|yield)\\b", Pattern.CASE_INSENSITIVE),
+            "javascript", Pattern.compile("\\b(function|const|let|var|=>|async|await|console\\.log|require|module\\.exports)\\b", Pattern.CASE_INSENSITIVE),
+            "typescript", Pattern.compile("\\b(interface|type|enum|namespace|declare|readonly|public|private|protected)\\b", Pattern.CASE_INSENSITIVE),
+            "csharp", Pattern.compile("\\b(public|private|protected|static|readonly|namespace|using|class|interface|struct)\\b", Pattern.CASE_INSENSITIVE),
+            "cpp", Pattern.compile("\\b(#include|namespace|std::|public:|private:|protected:|class|struct|template|virtual)\\b", Pattern.CASE_INSENSITIVE),
+            "rust", Pattern.compile("\\b(fn|let|mut|pub|struct|enum|impl|trait|use|mod|match)\\b", Pattern.CASE_INSENSITIVE),
+            "go", Pattern.compile("\\b(func|package|import|var|const|type|struct|interface|go|defer|chan)\\b", Pattern.CASE_INSENSITIVE),
+            "swift", Pattern.compile("\\b(func|var|let|class|struct|enum|protocol|extension|import|public|private)\\b", Pattern.CASE_INSENSITIVE)
+        );
+
+        String classify(String content) {
+            if (content == null || content.trim().isEmpty()) {
+                return "general";
+            }
+
+            return score(content).entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .filter(entry -> entry.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .orElse("general");
+        }
+
+        Map<String, Integer> score(String content) {
+            Map<String, Integer> languageScores = new HashMap<>();
+            for (Map.Entry<String, Pattern> entry : LANGUAGE_PATTERNS.entrySet()) {
+                Matcher matcher = entry.getValue().matcher(content);
+                int matches = 0;
+                while (matcher.find()) {
+                    matches++;
+                }
+                languageScores.put(entry.getKey(), matches);
+            }
+            return languageScores;
+        }
+    }
+}
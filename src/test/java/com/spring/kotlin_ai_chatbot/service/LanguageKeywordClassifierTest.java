@@ -0,0 +1,52 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LanguageKeywordClassifierTest {
+
+    private final LanguageKeywordClassifier classifier =
+            new LanguageKeywordClassifier(PdfProcessingService.LANGUAGE_KEYWORDS);
+    private final LanguageClassifierBenchmark.RegexLanguageClassifier regex =
+            new LanguageClassifierBenchmark.RegexLanguageClassifier();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "data class User(val name: String, var age: Int)\nsealed interface Result\nsuspend fun load() = when (x) { }",
+            "public final class Main extends Base implements Runnable {\n    private static final int LIMIT = 10;\n}",
+            "def greet(self):\n    print('hi')\nif __name__ == '__main__':\n    import sys\n    from os import path",
+            "const add = (a, b)=>a + b;\nlet total = await fetch(url);\nconsole.log(total); module.exports = add;",
+            "#include <vector>\nnamespace app {\ntemplate<typename T> class Box { public: virtual ~Box(); };\nstd::move(x);\n}",
+            "pub struct Point { x: i32 }\nimpl Trait for Point { fn area(&self) -> i32 { match self.x { _ => 0 } } }",
+            "package main\nimport \"fmt\"\nfunc main() { defer close(ch); go worker(ch) }",
+            "Chapter 3 explains why a data class in Kotlin generates equals, while a plain class does not.",
+            "DATA CLASS and Data Class both count once; so does dataclass not at all."
+    })
+    void agreesWithTheRegexClassifierItReplaced(String chunk) {
+        assertThat(automatonScores(chunk)).isEqualTo(regex.score(chunk));
+    }
+
+    @Test
+    void countsDataClassOnceForKotlin() {
+        int kotlin = classifier.getLanguages().indexOf("kotlin");
+
+        assertThat(classifier.score("data class Point(val x: Int)")[kotlin]).isEqualTo(2);
+    }
+
+    private Map<String, Integer> automatonScores(String chunk) {
+        int[] scores = classifier.score(chunk);
+        List<String> languages = classifier.getLanguages();
+        Map<String, Integer> byLanguage = new HashMap<>();
+        for (int i = 0; i < scores.length; i++) {
+            byLanguage.put(languages.get(i), scores[i]);
+        }
+        return byLanguage;
+    }
+}
@@ -0,0 +1,94 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class LexicalIndexTest {
+
+    private static final List<String> QUERIES = List.of(
+            "std::move", "coroutine scope", "sealed", "chunk", "borrow checker", "vec.push");
+
+    @Test
+    void roundTripsAfterRemovalsAndCompaction() throws IOException {
+        LexicalIndex index = populatedIndex();
+        for (int i = 0; i < 300; i += 7) {
+            index.remove("point-" + i);
+        }
+        index.compact();
+        index.removeSource("doc-2.pdf");
+
+        LexicalIndex loaded = roundTrip(index);
+
+        assertThat(loaded.size()).isEqualTo(index.size());
+        assertThat(loaded.deletedCount()).isZero();
+        for (String query : QUERIES) {
+            List<String> terms = LexicalIndex.tokenize(query);
+            assertThat(loaded.search(terms, 400, null)).isEqualTo(index.search(terms, 400, null));
+            assertThat(loaded.search(terms, 10, Set.of("rust"))).isEqualTo(index.search(terms, 10, Set.of("rust")));
+            for (String term : terms) {
+                assertThat(loaded.idf(term)).isEqualTo(index.idf(term));
+            }
+        }
+        assertThat(loaded.search(LexicalIndex.tokenize("chunk"), 400, null))
+                .extracting(LexicalIndex.Hit::pointId)
+                .doesNotContain("point-0", "point-7", "point-2")
+                .contains("point-1");
+    }
+
+    @Test
+    void keepsAcceptingChunksAfterLoading() throws IOException {
+        LexicalIndex loaded = roundTrip(populatedIndex());
+        loaded.add("point-new", "Kotlin flows are cold streams collected with collect", "doc-new.pdf", "kotlin");
+        loaded.remove("point-1");
+
+        assertThat(loaded.search(LexicalIndex.tokenize("flows"), 5, null))
+                .extracting(LexicalIndex.Hit::pointId)
+                .containsExactly("point-new");
+        assertThat(loaded.search(LexicalIndex.tokenize("chunk"), 400, null))
+                .extracting(LexicalIndex.Hit::pointId)
+                .doesNotContain("point-1");
+        assertThat(roundTrip(loaded).size()).isEqualTo(loaded.size());
+    }
+
+    /**
+     * Enough documents and repeats for document gaps and term frequencies that need more
+     * than one varint byte
+     */
+    private static LexicalIndex populatedIndex() {
+        LexicalIndex index = new LexicalIndex(1.2f, 0.75f);
+        String[] languages = {"kotlin", "java", "rust", "cpp"};
+        for (int i = 0; i < 300; i++) {
+            StringBuilder text = new StringBuilder("chunk ").append(i).append(' ');
+            switch (i % 4) {
+                case 0 -> text.append("sealed classes and coroutine scope in Kotlin");
+                case 1 -> text.append("records and sealed interfaces in Java");
+                case 2 -> text.append("the borrow checker and vec.push in Rust");
+                default -> text.append("std::move and rvalue references in C++");
+            }
+            if (i == 150) {
+                text.append(" sealed".repeat(200));
+            }
+            index.add("point-" + i, text.toString(), "doc-" + (i % 5) + ".pdf", languages[i % 4]);
+        }
+        return index;
+    }
+
+    private static LexicalIndex roundTrip(LexicalIndex index) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            index.writeTo(out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            return LexicalIndex.readFrom(in, 1.2f, 0.75f);
+        }
+    }
+}
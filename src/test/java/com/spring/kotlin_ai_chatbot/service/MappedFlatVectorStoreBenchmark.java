@@ -0,0 +1,225 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import io.qdrant.client.PointIdFactory;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.QdrantGrpcClient;
+import io.qdrant.client.ValueFactory;
+import io.qdrant.client.VectorsFactory;
+import io.qdrant.client.WithPayloadSelectorFactory;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.PayloadSchemaType;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.WithPayloadSelector;
+
+/**
+ * Times a query against the memory-mapped flat scan and against a Qdrant search over
+ * gRPC, on the same random 384-dimension corpus, with and without a language filter
+ * that keeps half the points. The mapped store runs at one partition and at several;
+ * Qdrant runs with its HNSW index and with exact search. The Qdrant side needs a
+ * running instance, by default localhost:6334 (-Dbenchmark.qdrant.host/port), and
+ * fills a throwaway collection it deletes afterwards. Run with
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.spring.kotlin_ai_chatbot.service.MappedFlatVectorStoreBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedFlatVectorStoreBenchmark {
+
+    private static final int DIMENSIONS = 384;
+    private static final int QUERIES = 64;
+    private static final List<String> LANGUAGES = List.of("kotlin", "java", "python", "general");
+    private static final List<String> PAYLOAD_FIELDS = List.of(ChunkMetadata.CONTENT, ChunkMetadata.LANGUAGE);
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+
+        @Param("20000")
+        public int rows;
+
+        @Param({"false", "true"})
+        public boolean filtered;
+
+        List<ReplicaVectorStore.StoredPoint> points;
+        float[][] queries;
+        SearchRequest request;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            points = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                String language = LANGUAGES.get(i % LANGUAGES.size());
+                String id = UUID.nameUUIDFromBytes(("chunk-" + i).getBytes(StandardCharsets.UTF_8)).toString();
+                points.add(new ReplicaVectorStore.StoredPoint(id, "chunk " + i,
+                        Map.of(ChunkMetadata.LANGUAGE, language), randomVector(random)));
+            }
+            queries = new float[QUERIES][];
+            for (int i = 0; i < QUERIES; i++) {
+                queries[i] = randomVector(random);
+            }
+            SearchRequest.Builder builder = SearchRequest.builder().topK(10).similarityThreshold(0.0);
+            if (filtered) {
+                builder.filterExpression(new FilterExpressionBuilder()
+                        .in(ChunkMetadata.LANGUAGE, List.of("kotlin", "general")).build());
+            }
+            request = builder.build();
+        }
+
+        float[] nextQuery() {
+            next = (next + 1) % QUERIES;
+            return queries[next];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mapped {
+
+        @Param({"1", "4"})
+        public int maxPartitions;
+
+        MappedFlatVectorStore store;
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp(Corpus corpus) throws Exception {
+            directory = Files.createTempDirectory("mapped-flat-benchmark");
+            store = new MappedFlatVectorStore(null, directory.resolve("vectors.bin"), "benchmark",
+                    DIMENSIONS, maxPartitions);
+            store.replaceAll(corpus.points);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            store = null;
+            try (var files = Files.list(directory)) {
+                files.forEach(file -> file.toFile().delete());
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Grpc {
+
+        @Param({"false", "true"})
+        public boolean exact;
+
+        QdrantClient client;
+        KnowledgeBaseRetriever retriever;
+        KnowledgeBaseRetriever.SearchTuning tuning;
+        WithPayloadSelector payload;
+        String collectionName;
+
+        @Setup(Level.Trial)
+        public void setUp(Corpus corpus) throws Exception {
+            client = new QdrantClient(QdrantGrpcClient.newBuilder(
+                    System.getProperty("benchmark.qdrant.host", "localhost"),
+                    Integer.getInteger("benchmark.qdrant.port", 6334), false).build());
+            collectionName = "mapped-flat-benchmark-" + UUID.randomUUID();
+            client.createCollectionAsync(collectionName, VectorParams.newBuilder()
+                    .setSize(DIMENSIONS).setDistance(Distance.Cosine).build()).get(30, TimeUnit.SECONDS);
+            client.createPayloadIndexAsync(collectionName, ChunkMetadata.LANGUAGE, PayloadSchemaType.Keyword,
+                    null, true, null, null).get(30, TimeUnit.SECONDS);
+
+            List<PointStruct> batch = new ArrayList<>();
+            for (ReplicaVectorStore.StoredPoint point : corpus.points) {
+                List<Float> vector = new ArrayList<>(DIMENSIONS);
+                for (float value : point.vector()) {
+                    vector.add(value);
+                }
+                batch.add(PointStruct.newBuilder()
+                        .setId(PointIdFactory.id(UUID.fromString(point.id())))
+                        .setVectors(VectorsFactory.vectors(vector))
+                        .putPayload(ChunkMetadata.CONTENT, ValueFactory.value(point.text()))
+                        .putPayload(ChunkMetadata.LANGUAGE,
+                                ValueFactory.value((String) point.metadata().get(ChunkMetadata.LANGUAGE)))
+                        .build());
+                if (batch.size() == 1000) {
+                    client.upsertAsync(collectionName, batch).get(60, TimeUnit.SECONDS);
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                client.upsertAsync(collectionName, batch).get(60, TimeUnit.SECONDS);
+            }
+
+            retriever = new KnowledgeBaseRetriever(client, null,
+                    new StaticListableBeanFactory().getBeanProvider(ReplicaVectorStore.class),
+                    "off", false, collectionName, 0, exact, true, 2.0);
+            tuning = retriever.getDefaultTuning();
+            payload = WithPayloadSelectorFactory.include(PAYLOAD_FIELDS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            client.deleteCollectionAsync(collectionName).get(30, TimeUnit.SECONDS);
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public void mappedScan(Corpus corpus, Mapped mapped, Blackhole blackhole) {
+        blackhole.consume(mapped.store.search(corpus.nextQuery(), corpus.request));
+    }
+
+    @Benchmark
+    public void qdrantGrpc(Corpus corpus, Grpc grpc, Blackhole blackhole) {
+        blackhole.consume(grpc.retriever.searchPoints(corpus.nextQuery(), corpus.request, grpc.payload, grpc.tuning));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MappedFlatVectorStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,216 @@
+package com.spring.kotlin_ai_chatbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.spring.kotlin_ai_chatbot.data.IngestionManifest;
+
+class PdfProcessingServiceTest {
+
+    private static final String[] SHARED = {
+            "Sealed classes restrict which classes may extend them, so the compiler",
+            "knows every subclass and a when expression over them needs no else branch.",
+            "This makes them a good fit for modelling results and state machines."
+    };
+
+    private static final String[] REWRITTEN = {
+            "Coroutines suspend instead of blocking, so thousands of them can share",
+            "a handful of threads while waiting for network or disk operations.",
+            "Structured concurrency ties each coroutine to the scope that launched it."
+    };
+
+    private static final String[][] LONG_DOCUMENT = {
+            {
+                    "Extension functions add behaviour to a type without inheriting from it or",
+                    "wrapping it, and they are resolved statically by the declared receiver type.",
+                    "Null safety separates nullable references from non-null ones in the type system,",
+                    "so the compiler rejects a dereference that could throw at runtime."
+            },
+            {
+                    "Delegated properties hand their getter and setter to another object, which is how",
+                    "lazy initialisation and observable fields are written in a single line.",
+                    "Inline functions copy their body and lambda arguments into the call site, removing",
+                    "the allocation a closure would otherwise cost on every invocation."
+            },
+            {
+                    "Flows emit values one after another and stay cold until collected, unlike channels,",
+                    "which hand each element to exactly one receiver as soon as it is sent.",
+                    "Generics with reified type parameters keep the type argument available at runtime,",
+                    "which lets a function check instances against it without passing a class token."
+            }
+    };
+
+    @TempDir
+    Path watchDirectory;
+
+    private final Map<String, Object> redis = new ConcurrentHashMap<>();
+    private final List<Document> stored = new CopyOnWriteArrayList<>();
+    private final List<String> deleted = new CopyOnWriteArrayList<>();
+    private VectorStore vectorStore;
+
+    @BeforeEach
+    void setUp() {
+        vectorStore = mock(VectorStore.class);
+        doAnswer(invocation -> {
+            stored.addAll(invocation.getArgument(0));
+            return null;
+        }).when(vectorStore).add(anyList());
+        doAnswer(invocation -> {
+            deleted.addAll(invocation.getArgument(0));
+            return null;
+        }).when(vectorStore).delete(anyList());
+    }
+
+    @Test
+    void reingestsDocumentWhoseNearDuplicateWasRemovedFromAnotherDocument() throws IOException {
+        writePdf(watchDirectory.resolve("alpha.pdf"), SHARED);
+        writePdf(watchDirectory.resolve("beta.pdf"), SHARED);
+
+        assertThat(newService().processAllPdfDocuments().isCompletelySuccessful()).isTrue();
+        assertThat(sourcesOf(stored)).containsExactly("alpha.pdf");
+
+        // A fresh instance, as after a restart, so the dependency has to come from the manifest
+        stored.clear();
+        writePdf(watchDirectory.resolve("alpha.pdf"), REWRITTEN);
+        newService().processPdfResource(new FileSystemResource(watchDirectory.resolve("alpha.pdf")));
+
+        assertThat(deleted).isNotEmpty();
+        assertThat(stored)
+                .filteredOn(chunk -> "beta.pdf".equals(chunk.getMetadata().get(ChunkMetadata.SOURCE)))
+                .singleElement()
+                .satisfies(chunk -> assertThat(chunk.getText()).contains("Sealed classes"));
+    }
+
+    @Test
+    void keepsSharedChunkInTheDocumentThatSortsFirst() throws IOException {
+        writePdf(watchDirectory.resolve("alpha.pdf"), SHARED);
+        writePdf(watchDirectory.resolve("beta.pdf"), SHARED);
+
+        PdfProcessingService service = newService();
+        service.processPdfResource(new FileSystemResource(watchDirectory.resolve("beta.pdf")));
+        service.processPdfResource(new FileSystemResource(watchDirectory.resolve("alpha.pdf")));
+
+        assertThat(sourcesOf(stored)).containsExactlyInAnyOrder("alpha.pdf", "beta.pdf");
+    }
+
+    @Test
+    void resumeUnderDifferentBatchSizeStoresEveryChunk() throws IOException {
+        writePdfPages(watchDirectory.resolve("gamma.pdf"), LONG_DOCUMENT);
+        AtomicInteger adds = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (adds.incrementAndGet() == 2) {
+                throw new IllegalStateException("Embedding provider unavailable");
+            }
+            stored.addAll(invocation.getArgument(0));
+            return null;
+        }).when(vectorStore).add(anyList());
+
+        Resource gamma = new FileSystemResource(watchDirectory.resolve("gamma.pdf"));
+        assertThat(newService(30, 1).processPdfResource(gamma).isSuccessful()).isFalse();
+        assertThat(stored).hasSize(1);
+
+        // The checkpoint counts batches of one chunk; batch 0 of the next run holds them all
+        newService(30, 50).processPdfResource(gamma);
+
+        IngestionManifest manifest = new IngestionManifestService(inMemoryRedis()).find("gamma.pdf").orElseThrow();
+        assertThat(manifest.getChunkHashes()).hasSizeGreaterThan(2);
+        assertThat(stored.stream().map(Document::getId).toList())
+                .containsAll(manifest.getChunkHashes().stream()
+                        .map(chunkHash -> IngestionManifestService.chunkId("gamma.pdf", chunkHash))
+                        .toList());
+    }
+
+    private PdfProcessingService newService() {
+        RedisTemplate<String, Object> redisTemplate = inMemoryRedis();
+        return new PdfProcessingService(vectorStore, new DefaultResourceLoader(),
+                new IngestionManifestService(redisTemplate), new IngestionCheckpointService(redisTemplate),
+                mock(LexicalSearchService.class), mock(ApplicationEventPublisher.class),
+                800, 100, 50, 8000, 8, 1, 4, 4, 2, 2,
+                watchDirectory.toString(), true, 3, 0, 0.5, 16);
+    }
+
+    /**
+     * A single store worker, so batches commit in order
+     */
+    private PdfProcessingService newService(int chunkSize, int batchSize) {
+        RedisTemplate<String, Object> redisTemplate = inMemoryRedis();
+        return new PdfProcessingService(vectorStore, new DefaultResourceLoader(),
+                new IngestionManifestService(redisTemplate), new IngestionCheckpointService(redisTemplate),
+                mock(LexicalSearchService.class), mock(ApplicationEventPublisher.class),
+                chunkSize, 0, batchSize, 8000, 8, 1, 4, 4, 1, 1,
+                watchDirectory.toString(), true, 3, 0, 0.5, 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> inMemoryRedis() {
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        ValueOperations<String, Object> values = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(values);
+        when(values.get(any())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> {
+            redis.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(values).set(anyString(), any());
+        when(template.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+        return template;
+    }
+
+    private static List<Object> sourcesOf(List<Document> chunks) {
+        return chunks.stream().map(chunk -> chunk.getMetadata().get(ChunkMetadata.SOURCE)).toList();
+    }
+
+    private static void writePdf(Path file, String... lines) throws IOException {
+        writePdfPages(file, new String[][] {lines});
+    }
+
+    private static void writePdfPages(Path file, String[][] pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (String[] lines : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 11);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 720);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+    }
+}